@@ -0,0 +1,65 @@
+package com.elibrary.benchmark;
+
+import com.elibrary.dto.BookDTO;
+import com.elibrary.dto.BookSuggestionDTO;
+import com.elibrary.dto.BookSummaryDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int books;
+
+    private CatalogFixture fixture;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        fixture = new CatalogFixture(books);
+    }
+
+    // Maps every book to its DTO, so this tracks the cost of toDTO across the catalog
+    @Benchmark
+    public List<BookSummaryDTO> getAllBooks() {
+        return fixture.bookService.getAllBooks();
+    }
+
+    @Benchmark
+    public BookDTO getBookById() {
+        return fixture.bookService.getBookById(fixture.books.get(next++ % books).getId());
+    }
+
+    @Benchmark
+    public List<BookSummaryDTO> searchBooks() {
+        return fixture.bookService.searchBooks(fixture.searchQueries.get(next++ % fixture.searchQueries.size()));
+    }
+
+    @Benchmark
+    public List<BookSuggestionDTO> autocomplete() {
+        return fixture.bookService.autocomplete(
+                fixture.autocompletePrefixes.get(next++ % fixture.autocompletePrefixes.size()), 8);
+    }
+
+    @Benchmark
+    public List<BookSummaryDTO> getRecommendations() {
+        return fixture.bookService.getRecommendations(fixture.books.get(next++ % books).getId(), 5);
+    }
+}
@@ -0,0 +1,339 @@
+package com.elibrary.benchmark;
+
+import com.elibrary.entity.Book;
+import com.elibrary.entity.Category;
+import com.elibrary.entity.CirculationRollup;
+import com.elibrary.entity.Loan;
+import com.elibrary.entity.User;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.CategoryRepository;
+import com.elibrary.repository.CirculationRollupRepository;
+import com.elibrary.repository.CirculationRollupRepositoryCustom.RollupIncrement;
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.UserRepository;
+import com.elibrary.repository.projection.BookAvailability;
+import com.elibrary.repository.projection.BookCirculationRef;
+import com.elibrary.repository.projection.BookLabel;
+import com.elibrary.repository.projection.BookLoanCount;
+import com.elibrary.repository.projection.BookSearchText;
+import com.elibrary.repository.projection.BookSummary;
+import com.elibrary.repository.projection.CategoryBookCount;
+import com.elibrary.repository.projection.CategoryRef;
+import com.elibrary.repository.projection.CategorySummary;
+import com.elibrary.repository.projection.LoanLink;
+import com.elibrary.repository.projection.UserLoanCount;
+import com.elibrary.repository.projection.UserSummary;
+import com.elibrary.service.BookAutocompleteIndex;
+import com.elibrary.service.BookAvailabilityIndex;
+import com.elibrary.service.BookRecommendationIndex;
+import com.elibrary.service.BookSearchIndex;
+import com.elibrary.service.BookService;
+import com.elibrary.service.CatalogCache;
+import com.elibrary.service.CirculationAnalyticsService;
+import com.elibrary.service.CategoryService;
+import com.elibrary.service.LoanService;
+import com.elibrary.service.PasswordHasher;
+import com.elibrary.service.UserService;
+import com.mongodb.DBRef;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * A generated catalog held in in-memory repositories, wired into the real services.
+ * Generation is seeded, so every run and every fork sees the same data.
+ */
+final class CatalogFixture {
+
+    static final int CATEGORIES = 25;
+    static final int COPIES_PER_BOOK = 3;
+
+    private static final String[] WORDS = {
+            "river", "shadow", "garden", "empire", "winter", "silent", "golden", "machine", "ocean", "letters",
+            "forest", "history", "night", "stone", "journey", "kingdom", "memory", "glass", "secret", "harbor",
+            "fire", "mountain", "city", "dream", "north", "storm", "island", "light", "war", "song"
+    };
+    private static final String[] SURNAMES = {
+            "Austen", "Orwell", "Tolstoy", "Morrison", "Achebe", "Woolf", "Borges", "Murakami", "Atwood", "Dickens"
+    };
+
+    final List<Category> categories = new ArrayList<>();
+    final List<Book> books = new ArrayList<>();
+    final List<User> users = new ArrayList<>();
+    final List<String> searchQueries = new ArrayList<>();
+    final List<String> autocompletePrefixes = new ArrayList<>();
+
+    final BookRepository bookRepository;
+    final CategoryRepository categoryRepository;
+    final UserRepository userRepository;
+    final LoanRepository loanRepository;
+
+    final BookService bookService;
+    final CategoryService categoryService;
+    final UserService userService;
+    final LoanService loanService;
+
+    CatalogFixture(int bookCount) {
+        InMemoryRepository<Category> categoryStore = new InMemoryRepository<>(Category::getId, Category::setId);
+        InMemoryRepository<Book> bookStore = new InMemoryRepository<>(Book::getId, Book::setId);
+        InMemoryRepository<User> userStore = new InMemoryRepository<>(User::getId, User::setId);
+        InMemoryRepository<Loan> loanStore = new InMemoryRepository<>(Loan::getId, Loan::setId);
+        InMemoryRepository<CirculationRollup> rollupStore = new InMemoryRepository<>(CirculationRollup::getId,
+                CirculationRollup::setId);
+
+        categoryStore
+                .on("findRefsByIdIn", args -> ((Collection<?>) args[0]).stream()
+                        .map(categoryStore.store()::get)
+                        .filter(Objects::nonNull)
+                        .map(category -> new CategoryRef(category.getId(), category.getName()))
+                        .collect(Collectors.toList()))
+                .on("findAllWithBookCounts", args -> {
+                    Map<String, Long> counts = bookStore.store().values().stream()
+                            .filter(book -> book.getCategory() != null)
+                            .collect(Collectors.groupingBy(book -> book.getCategory().getId(), Collectors.counting()));
+                    return categoryStore.store().values().stream()
+                            .map(category -> new CategorySummary(category.getId(), category.getName(),
+                                    category.getDescription(), counts.getOrDefault(category.getId(), 0L)))
+                            .collect(Collectors.toList());
+                });
+
+        bookStore
+                .on("findSummariesBy", args -> bookStore.store().values().stream()
+                        .map(CatalogFixture::summaryOf)
+                        .collect(Collectors.toList()))
+                .on("streamAvailabilityByOrderByIdAsc", args -> bookStore.store().values().stream()
+                        .map(book -> new BookAvailability(book.getId(), book.getAvailableCopies(),
+                                summaryOf(book).getCategory(), book.getVersion())))
+                .on("streamLabelsBy", args -> bookStore.store().values().stream()
+                        .map(book -> new BookLabel(book.getId(), book.getTitle(), book.getAuthor())))
+                .on("streamSearchTextBy", args -> bookStore.store().values().stream()
+                        .map(book -> new BookSearchText(book.getId(), book.getTitle(), book.getAuthor(),
+                                book.getDescription(), book.getIsbn())))
+                .on("findSummariesByIdIn", args -> ((Collection<?>) args[0]).stream()
+                        .map(bookStore.store()::get)
+                        .filter(Objects::nonNull)
+                        .map(CatalogFixture::summaryOf)
+                        .collect(Collectors.toList()))
+                .on("findCirculationRefsByIdIn", args -> ((Collection<?>) args[0]).stream()
+                        .map(bookStore.store()::get)
+                        .filter(Objects::nonNull)
+                        .map(book -> new BookCirculationRef(book.getId(), book.getTitle(),
+                                summaryOf(book).getCategory()))
+                        .collect(Collectors.toList()))
+                .on("countBooksGroupedByCategory", args -> bookStore.store().values().stream()
+                        .filter(book -> book.getCategory() != null)
+                        .collect(Collectors.groupingBy(book -> book.getCategory().getId(), Collectors.counting()))
+                        .entrySet().stream()
+                        .map(count -> new CategoryBookCount(count.getKey(), count.getValue()))
+                        .collect(Collectors.toList()))
+                .on("reserveCopy", args -> {
+                    Book book = bookStore.store().get((String) args[0]);
+                    if (book == null || book.getAvailableCopies() <= 0) {
+                        return Optional.empty();
+                    }
+                    book.setAvailableCopies(book.getAvailableCopies() - 1);
+                    book.setAvailable(book.getAvailableCopies() > 0);
+                    return Optional.of(book);
+                })
+                .on("releaseCopy", args -> {
+                    Book book = bookStore.store().get((String) args[0]);
+                    if (book == null || book.getAvailableCopies() >= book.getTotalCopies()) {
+                        return Optional.empty();
+                    }
+                    book.setAvailableCopies(book.getAvailableCopies() + 1);
+                    book.setAvailable(true);
+                    return Optional.of(book);
+                });
+
+        userStore
+                .on("findSummariesBy", args -> userStore.store().values().stream()
+                        .map(CatalogFixture::summaryOf)
+                        .collect(Collectors.toList()))
+                .on("reserveLoanSlot", args -> {
+                    User user = userStore.store().get((String) args[0]);
+                    if (user == null || !user.getActive() || user.getActiveLoans() >= (Integer) args[1]) {
+                        return false;
+                    }
+                    user.setActiveLoans(user.getActiveLoans() + 1);
+                    return true;
+                })
+                .on("releaseLoanSlot", args -> {
+                    User user = userStore.store().get((String) args[0]);
+                    if (user != null && user.getActiveLoans() > 0) {
+                        user.setActiveLoans(user.getActiveLoans() - 1);
+                    }
+                    return null;
+                });
+
+        loanStore
+                .on("countAllByStatusInGroupedByUser", args -> loanStore.store().values().stream()
+                        .filter(loan -> ((Collection<?>) args[0]).contains(loan.getStatus()))
+                        .collect(Collectors.groupingBy(loan -> loan.getUser().getId(), Collectors.counting()))
+                        .entrySet().stream()
+                        .map(count -> new UserLoanCount(count.getKey(), count.getValue()))
+                        .collect(Collectors.toList()))
+                .on("countAllGroupedByBook", args -> loanStore.store().values().stream()
+                        .collect(Collectors.groupingBy(loan -> loan.getBook().getId(), Collectors.counting()))
+                        .entrySet().stream()
+                        .map(count -> new BookLoanCount(count.getKey(), count.getValue()))
+                        .collect(Collectors.toList()))
+                .on("streamLinksBy", args -> loanStore.store().values().stream()
+                        .map(loan -> new LoanLink(loan.getId(), new DBRef("books", loan.getBook().getId()),
+                                new DBRef("users", loan.getUser().getId())))
+                        .toList().stream())
+                .on("markReturned", args -> {
+                    Loan loan = loanStore.store().get((String) args[0]);
+                    if (loan == null || loan.getStatus() == Loan.LoanStatus.RETURNED) {
+                        return Optional.empty();
+                    }
+                    loan.setStatus(Loan.LoanStatus.RETURNED);
+                    loan.setReturnDate((LocalDate) args[1]);
+                    return Optional.of(loan);
+                });
+
+        rollupStore
+                .on("increment", args -> {
+                    for (Object item : (Collection<?>) args[0]) {
+                        RollupIncrement increment = (RollupIncrement) item;
+                        CirculationRollup rollup = rollupStore.store().computeIfAbsent(
+                                CirculationRollup.key(increment.day(), increment.bookId()),
+                                key -> CirculationRollup.builder().id(key).day(increment.day())
+                                        .bookId(increment.bookId()).build());
+                        rollup.setCheckouts(rollup.getCheckouts() + increment.checkouts());
+                        rollup.setReturns(rollup.getReturns() + increment.returns());
+                        rollup.setOverdue(rollup.getOverdue() + increment.overdue());
+                    }
+                    return null;
+                });
+
+        bookRepository = bookStore.as(BookRepository.class);
+        categoryRepository = categoryStore.as(CategoryRepository.class);
+        userRepository = userStore.as(UserRepository.class);
+        loanRepository = loanStore.as(LoanRepository.class);
+
+        generate(bookCount, new Random(42));
+
+        CatalogCache catalogCache = new CatalogCache(new ConcurrentMapCacheManager(
+                CatalogCache.BOOKS, CatalogCache.CATEGORIES, CatalogCache.CATEGORY_LIST));
+        BookSearchIndex searchIndex = new BookSearchIndex(bookRepository);
+        searchIndex.rebuild();
+        BookAvailabilityIndex availabilityIndex = new BookAvailabilityIndex(bookRepository);
+        availabilityIndex.rebuild();
+        BookAutocompleteIndex autocompleteIndex = new BookAutocompleteIndex(bookRepository, loanRepository);
+        autocompleteIndex.rebuild();
+        BookRecommendationIndex recommendationIndex = new BookRecommendationIndex(loanRepository);
+        recommendationIndex.rebuild();
+
+        bookService = new BookService(bookRepository, categoryRepository, searchIndex, event -> { }, catalogCache,
+                availabilityIndex, autocompleteIndex, recommendationIndex);
+        categoryService = new CategoryService(categoryRepository, bookRepository, catalogCache);
+        userService = new UserService(userRepository, loanRepository, event -> { },
+                new PasswordHasher(4, 1, 16, Duration.ofSeconds(5)));
+        CirculationAnalyticsService circulationAnalytics = new CirculationAnalyticsService(
+                rollupStore.as(CirculationRollupRepository.class), loanRepository, bookRepository, categoryRepository);
+        loanService = new LoanService(loanRepository, bookRepository, userRepository, catalogCache, availabilityIndex,
+                recommendationIndex, circulationAnalytics);
+    }
+
+    // What the projected repository queries would read from the stored documents
+    private static BookSummary summaryOf(Book book) {
+        return BookSummary.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .publishedYear(book.getPublishedYear())
+                .available(book.getAvailable())
+                .totalCopies(book.getTotalCopies())
+                .availableCopies(book.getAvailableCopies())
+                .category(book.getCategory() != null ? new DBRef("categories", book.getCategory().getId()) : null)
+                .build();
+    }
+
+    private static UserSummary summaryOf(User user) {
+        return UserSummary.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .phone(user.getPhone())
+                .address(user.getAddress())
+                .membershipDate(user.getMembershipDate())
+                .active(user.getActive())
+                .build();
+    }
+
+    private void generate(int bookCount, Random random) {
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(categoryRepository.save(Category.builder()
+                    .name("Category " + i)
+                    .description("Generated category " + i)
+                    .build()));
+        }
+
+        for (int i = 0; i < bookCount; i++) {
+            String title = word(random) + " " + word(random) + " " + word(random);
+            books.add(bookRepository.save(Book.builder()
+                    .title(title)
+                    .author(SURNAMES[random.nextInt(SURNAMES.length)] + " " + i)
+                    .isbn(String.format("978-%010d", i))
+                    .description("A story of " + word(random) + " and " + word(random) + ".")
+                    .publishedYear(1900 + random.nextInt(125))
+                    .totalCopies(COPIES_PER_BOOK)
+                    .availableCopies(COPIES_PER_BOOK)
+                    .category(categories.get(random.nextInt(CATEGORIES)))
+                    .build()));
+        }
+
+        // One user per ten books, each holding up to two of the five allowed loans
+        int userCount = Math.max(10, bookCount / 10);
+        for (int i = 0; i < userCount; i++) {
+            users.add(userRepository.save(User.builder()
+                    .name("Reader " + i)
+                    .email("reader" + i + "@example.com")
+                    .membershipDate(LocalDate.of(2020, 1, 1).plusDays(i % 1000))
+                    .activeLoans(0)
+                    .build()));
+        }
+        for (User user : users) {
+            int loans = random.nextInt(3);
+            for (int j = 0; j < loans; j++) {
+                Book book = books.get(random.nextInt(books.size()));
+                if (book.getAvailableCopies() == 0) {
+                    continue;
+                }
+                book.setAvailableCopies(book.getAvailableCopies() - 1);
+                user.setActiveLoans(user.getActiveLoans() + 1);
+                loanRepository.save(Loan.builder()
+                        .book(book)
+                        .user(user)
+                        .loanDate(LocalDate.of(2024, 1, 1))
+                        .dueDate(LocalDate.of(2024, 1, 15))
+                        .status(Loan.LoanStatus.ACTIVE)
+                        .build());
+            }
+        }
+
+        for (int i = 0; i < 16; i++) {
+            searchQueries.add(i % 4 == 0 ? word(random).substring(0, 3) : word(random) + " " + word(random));
+        }
+        // Keystroke-sized prefixes, every other one with the last two letters swapped
+        for (int i = 0; i < 16; i++) {
+            String word = word(random);
+            String prefix = word.substring(0, Math.min(word.length(), 3 + random.nextInt(3)));
+            autocompletePrefixes.add(i % 2 == 0 ? prefix : prefix.substring(0, prefix.length() - 2)
+                    + prefix.charAt(prefix.length() - 1) + prefix.charAt(prefix.length() - 2));
+        }
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
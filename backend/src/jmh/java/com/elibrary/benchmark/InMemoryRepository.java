@@ -0,0 +1,95 @@
+package com.elibrary.benchmark;
+
+import org.bson.types.ObjectId;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Map-backed stand-in for a Spring Data repository interface. The CRUD methods the
+ * services use are built in; derived, aggregation and custom fragment methods are
+ * registered by name, and anything else fails loudly so a benchmark never measures
+ * a silently stubbed call.
+ */
+final class InMemoryRepository<T> implements InvocationHandler {
+
+    private final Map<String, T> store = new LinkedHashMap<>();
+    private final Map<String, Function<Object[], Object>> methods = new HashMap<>();
+    private final Function<T, String> idGetter;
+    private final BiConsumer<T, String> idSetter;
+
+    InMemoryRepository(Function<T, String> idGetter, BiConsumer<T, String> idSetter) {
+        this.idGetter = idGetter;
+        this.idSetter = idSetter;
+    }
+
+    InMemoryRepository<T> on(String methodName, Function<Object[], Object> implementation) {
+        methods.put(methodName, implementation);
+        return this;
+    }
+
+    Map<String, T> store() {
+        return store;
+    }
+
+    <R> R as(Class<R> repositoryType) {
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(),
+                new Class<?>[] { repositoryType }, this));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        Function<Object[], Object> registered = methods.get(name);
+        if (registered != null) {
+            return registered.apply(args);
+        }
+        int arity = args == null ? 0 : args.length;
+        switch (name + "/" + arity) {
+            case "findAll/0":
+                return new ArrayList<>(store.values());
+            case "findById/1":
+                return Optional.ofNullable(store.get((String) args[0]));
+            case "existsById/1":
+                return store.containsKey((String) args[0]);
+            case "findAllById/1":
+                List<T> found = new ArrayList<>();
+                for (Object id : (Iterable<?>) args[0]) {
+                    T entity = store.get((String) id);
+                    if (entity != null) {
+                        found.add(entity);
+                    }
+                }
+                return found;
+            case "save/1":
+                T entity = (T) args[0];
+                if (idGetter.apply(entity) == null) {
+                    idSetter.accept(entity, new ObjectId().toHexString());
+                }
+                store.put(idGetter.apply(entity), entity);
+                return entity;
+            case "deleteById/1":
+                store.remove((String) args[0]);
+                return null;
+            case "count/0":
+                return (long) store.size();
+            case "hashCode/0":
+                return System.identityHashCode(proxy);
+            case "equals/1":
+                return proxy == args[0];
+            case "toString/0":
+                return "InMemoryRepository(" + store.size() + ")";
+            default:
+                throw new UnsupportedOperationException("No in-memory implementation for " + method);
+        }
+    }
+}
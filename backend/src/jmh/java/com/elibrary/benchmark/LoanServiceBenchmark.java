@@ -0,0 +1,49 @@
+package com.elibrary.benchmark;
+
+import com.elibrary.dto.LoanDTO;
+import com.elibrary.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanServiceBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int books;
+
+    private CatalogFixture fixture;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        fixture = new CatalogFixture(books);
+    }
+
+    // Checkout and return as one operation keeps copies and loan slots stable across iterations;
+    // the returned loan is dropped so the loan store does not grow with the invocation count
+    @Benchmark
+    public LoanDTO checkoutAndReturn() {
+        int i = next++;
+        User user = fixture.users.get(i % fixture.users.size());
+        String bookId = fixture.books.get(i % books).getId();
+        LoanDTO loan = fixture.loanService.checkoutBook(bookId, user.getId());
+        LoanDTO returned = fixture.loanService.returnBook(loan.getId());
+        fixture.loanRepository.deleteById(loan.getId());
+        return returned;
+    }
+}
@@ -0,0 +1,90 @@
+package com.elibrary.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times one BCrypt verification per cost factor. Run through {@link #main} to get the highest
+ * cost that stays within a target login latency, for elibrary.security.password.bcrypt-cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+    private static final String TARGET_OPTION = "--target-ms=";
+    private static final double DEFAULT_TARGET_MILLIS = 250;
+
+    @Param({ "10", "11", "12", "13", "14" })
+    private int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        hash = encoder.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return encoder.matches("correct horse battery staple", hash);
+    }
+
+    // Accepts --target-ms=N plus the usual JMH options
+    public static void main(String[] args) throws Exception {
+        double targetMillis = DEFAULT_TARGET_MILLIS;
+        List<String> jmhArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(TARGET_OPTION)) {
+                targetMillis = Double.parseDouble(arg.substring(TARGET_OPTION.length()));
+            } else {
+                jmhArgs.add(arg);
+            }
+        }
+
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.toArray(String[]::new)))
+                .include(PasswordHashBenchmark.class.getName())
+                .build()).run();
+
+        int chosen = -1;
+        for (RunResult result : results) {
+            int resultCost = Integer.parseInt(result.getParams().getParam("cost"));
+            double millis = result.getPrimaryResult().getScore();
+            System.out.printf("cost %d: %.1f ms per verification%n", resultCost, millis);
+            if (millis <= targetMillis && resultCost > chosen) {
+                chosen = resultCost;
+            }
+        }
+        // Latency under load also includes queueing behind hash-threads
+        if (chosen < 0) {
+            System.out.printf("No measured cost verifies within %.0f ms on this machine%n", targetMillis);
+        } else {
+            System.out.printf("Recommended elibrary.security.password.bcrypt-cost: %d (target %.0f ms)%n",
+                    chosen, targetMillis);
+        }
+    }
+}
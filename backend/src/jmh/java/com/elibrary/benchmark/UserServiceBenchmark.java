@@ -0,0 +1,41 @@
+package com.elibrary.benchmark;
+
+import com.elibrary.dto.UserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    // Users are generated at one per ten books
+    @Param({ "1000", "10000" })
+    private int books;
+
+    private CatalogFixture fixture;
+
+    @Setup
+    public void setUp() {
+        fixture = new CatalogFixture(books);
+    }
+
+    @Benchmark
+    public List<UserDTO> getAllUsers() {
+        return fixture.userService.getAllUsers();
+    }
+}
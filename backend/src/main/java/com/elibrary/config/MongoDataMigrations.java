@@ -0,0 +1,46 @@
+package com.elibrary.config;
+
+import com.elibrary.entity.Book;
+import com.elibrary.entity.User;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Idempotent fix-ups for documents written before a field was introduced. They run while the
+ * context starts, before the web server accepts requests, and a failure aborts startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoDataMigrations {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${elibrary.migrations.enabled:true}")
+    private boolean enabled = true;
+
+    @PostConstruct
+    public void migrate() {
+        if (enabled) {
+            backfillVersions();
+        }
+    }
+
+    // A null @Version marks an entity as new, so saving a legacy document would attempt an insert
+    private void backfillVersions() {
+        Query unversioned = Query.query(Criteria.where("version").exists(false));
+        Update initialVersion = new Update().set("version", 0L);
+        long books = mongoTemplate.updateMulti(unversioned, initialVersion, Book.class).getModifiedCount();
+        long users = mongoTemplate.updateMulti(unversioned, initialVersion, User.class).getModifiedCount();
+        if (books > 0 || users > 0) {
+            log.info("Initialized version on {} books and {} users", books, users);
+        }
+    }
+}
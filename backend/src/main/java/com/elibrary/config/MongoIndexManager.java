@@ -0,0 +1,136 @@
+package com.elibrary.config;
+
+import com.elibrary.entity.Book;
+import com.elibrary.entity.Category;
+import com.elibrary.entity.CirculationRollup;
+import com.elibrary.entity.Loan;
+import com.elibrary.entity.User;
+import com.elibrary.repository.LoanRepositoryImpl;
+import com.mongodb.ExplainVerbosity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the indexes declared on the entities and checks that every loan query shape
+ * is served by one. Index auto-creation is off, so this is the only place indexes are built.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexManager {
+
+    public static final List<Class<?>> INDEXED_ENTITIES = List.of(Book.class, Category.class, User.class, Loan.class,
+            CirculationRollup.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            ensureIndexes();
+            checkLoanQueryPlans();
+        } catch (RuntimeException ex) {
+            log.warn("Mongo index setup failed: {}", ex.getMessage());
+        }
+    }
+
+    public void ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            for (IndexDefinition index : resolver.resolveIndexFor(entity)) {
+                // One conflicting index, e.g. a unique index over existing duplicates, must not block the others
+                try {
+                    mongoTemplate.indexOps(entity).ensureIndex(index);
+                } catch (DataAccessResourceFailureException ex) {
+                    throw ex;
+                } catch (RuntimeException ex) {
+                    log.warn("Could not create index {} on {}: {}", index.getIndexKeys().toJson(),
+                            mongoTemplate.getCollectionName(entity), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    public void checkLoanQueryPlans() {
+        String collection = mongoTemplate.getCollectionName(Loan.class);
+        loanQueryShapes(mongoTemplate.getConverter()).forEach((query, filter) -> {
+            Document explain = mongoTemplate.getCollection(collection).find(filter)
+                    .explain(ExplainVerbosity.QUERY_PLANNER);
+            if (usesCollectionScan(explain)) {
+                log.warn("LoanRepository.{} falls back to a collection scan for {}", query, filter.toJson());
+            }
+        });
+    }
+
+    /**
+     * Filters of the loan repository methods, mapped to stored field names and value types the way
+     * the repository maps them. The custom updates share their queries with {@link LoanRepositoryImpl};
+     * MongoIndexManagerTest checks the rest against what the derived and aggregation methods send.
+     */
+    static Map<String, Document> loanQueryShapes(MongoConverter converter) {
+        Object id = new ObjectId();
+        LocalDate today = LocalDate.now();
+        List<Loan.LoanStatus> unreturned = Loan.LoanStatus.UNRETURNED;
+        Map<String, Query> queries = new LinkedHashMap<>();
+        queries.put("findByUser_Id", Query.query(Criteria.where("user.$id").is(id)));
+        queries.put("findByUser_IdAndStatus", Query.query(Criteria.where("user.$id").is(id)
+                .and("status").is(Loan.LoanStatus.ACTIVE)));
+        queries.put("countByUser_IdAndStatusIn", Query.query(Criteria.where("user.$id").is(id)
+                .and("status").in(unreturned)));
+        queries.put("countByUserIdsAndStatusIn", Query.query(Criteria.where("user.$id").in(List.of(id))
+                .and("status").in(unreturned)));
+        queries.put("findByBook_Id", Query.query(Criteria.where("book.$id").is(id)));
+        queries.put("findByBook_IdAndStatus", Query.query(Criteria.where("book.$id").is(id)
+                .and("status").is(Loan.LoanStatus.ACTIVE)));
+        queries.put("findByStatus", Query.query(Criteria.where("status").is(Loan.LoanStatus.OVERDUE)));
+        queries.put("findByStatusIn", Query.query(Criteria.where("status").in(unreturned)));
+        queries.put("findByStatusAndDueDateBefore", Query.query(Criteria.where("status").is(Loan.LoanStatus.ACTIVE)
+                .and("dueDate").lt(today)));
+        queries.put("markOverdue", LoanRepositoryImpl.overdueQuery(today.minusDays(1), today, true));
+        queries.put("markOverdue (again)", LoanRepositoryImpl.overdueQuery(today.minusDays(1), today, false));
+        queries.put("countByOverdueSweepIdGroupedByBook", Query.query(Criteria.where("overdueSweepId").is("sweep")));
+
+        QueryMapper mapper = new QueryMapper(converter);
+        MongoPersistentEntity<?> loan = converter.getMappingContext().getRequiredPersistentEntity(Loan.class);
+        Map<String, Document> shapes = new LinkedHashMap<>();
+        queries.forEach((name, query) -> shapes.put(name, mapper.getMappedObject(query.getQueryObject(), loan)));
+        return shapes;
+    }
+
+    static boolean usesCollectionScan(Object plan) {
+        if (plan instanceof Document document) {
+            if ("COLLSCAN".equals(document.get("stage"))) {
+                return true;
+            }
+            // Rejected plans are alternatives the planner did not pick
+            return document.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals("rejectedPlans"))
+                    .anyMatch(entry -> usesCollectionScan(entry.getValue()));
+        }
+        if (plan instanceof List<?> list) {
+            return list.stream().anyMatch(MongoIndexManager::usesCollectionScan);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package com.elibrary.config;
+
+import com.elibrary.exception.BusinessException;
+import com.elibrary.exception.ResourceNotFoundException;
+import com.elibrary.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Times every public method of the *Service beans, tagged by outcome and, for business
+ * errors, by reason. Repository calls are timed by Spring Boot as spring.data.repository.invocations
+ * and Mongo commands as mongodb.driver.commands.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+// Outermost, so cache hits and transaction overhead count towards the time callers see
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    static final String SERVICE_TIMER = "elibrary.service.calls";
+    static final String BUSINESS_ERRORS = "elibrary.service.business.errors";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.elibrary.service.*Service.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Tags operation = Tags.of("service", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                "method", joinPoint.getSignature().getName());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            record(sample, operation, ex);
+            throw ex;
+        }
+
+        // Reactive results do their work on subscription, so they are timed per subscriber. doFinally also
+        // sees cancellations, e.g. a client leaving a stream, which are the longest calls of all
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                Timer.Sample subscription = Timer.start(meterRegistry);
+                AtomicReference<Throwable> error = new AtomicReference<>();
+                return mono.doOnError(error::set)
+                        .doFinally(signal -> record(subscription, operation, signal, error.get()));
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> {
+                Timer.Sample subscription = Timer.start(meterRegistry);
+                AtomicReference<Throwable> error = new AtomicReference<>();
+                return flux.doOnError(error::set)
+                        .doFinally(signal -> record(subscription, operation, signal, error.get()));
+            });
+        }
+        // Stream results are timed until they are returned, not until they are drained
+        record(sample, operation, null);
+        return result;
+    }
+
+    private void record(Timer.Sample sample, Tags operation, SignalType signal, Throwable ex) {
+        if (signal == SignalType.CANCEL) {
+            sample.stop(meterRegistry.timer(SERVICE_TIMER, operation.and("outcome", "cancelled", "reason", "none",
+                    "exception", "none")));
+        } else {
+            record(sample, operation, ex);
+        }
+    }
+
+    private void record(Timer.Sample sample, Tags operation, Throwable ex) {
+        String reason = ex instanceof BusinessException business && business.getReason() != null
+                ? business.getReason().tag() : "none";
+        Tags tags = operation.and("outcome", outcome(ex), "reason", reason,
+                "exception", ex != null ? ex.getClass().getSimpleName() : "none");
+        sample.stop(meterRegistry.timer(SERVICE_TIMER, tags));
+        if (ex instanceof BusinessException) {
+            meterRegistry.counter(BUSINESS_ERRORS, operation.and("reason", reason)).increment();
+        }
+    }
+
+    static String outcome(Throwable ex) {
+        if (ex == null) {
+            return "success";
+        }
+        if (ex instanceof BusinessException) {
+            return "business_error";
+        }
+        if (ex instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        if (ex instanceof OptimisticLockingFailureException) {
+            return "conflict";
+        }
+        if (ex instanceof ServiceUnavailableException) {
+            return "unavailable";
+        }
+        return "error";
+    }
+}
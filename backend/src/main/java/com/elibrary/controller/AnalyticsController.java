@@ -0,0 +1,44 @@
+package com.elibrary.controller;
+
+import com.elibrary.dto.CategoryTopTitlesDTO;
+import com.elibrary.dto.CirculationBackfillDTO;
+import com.elibrary.dto.CirculationReportDTO;
+import com.elibrary.service.CirculationAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.List;
+
+// Answered from the circulation rollups only; 'from' and 'to' are inclusive and default to the last 30 days
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private final CirculationAnalyticsService circulationAnalytics;
+
+    @GetMapping("/circulation")
+    public ResponseEntity<CirculationReportDTO> getCirculation(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String categoryId) {
+        return ResponseEntity.ok(circulationAnalytics.getCirculation(from, to, categoryId));
+    }
+
+    @GetMapping("/circulation/top-titles")
+    public ResponseEntity<List<CategoryTopTitlesDTO>> getTopTitles(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(circulationAnalytics.getTopTitles(from, to, categoryId, limit));
+    }
+
+    @PostMapping("/circulation/backfill")
+    public ResponseEntity<CirculationBackfillDTO> backfill() {
+        return ResponseEntity.ok(circulationAnalytics.backfill());
+    }
+}
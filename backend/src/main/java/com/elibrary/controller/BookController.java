@@ -1,12 +1,23 @@
 package com.elibrary.controller;
 
+import com.elibrary.dto.CursorPageDTO;
 import com.elibrary.dto.BookDTO;
+import com.elibrary.dto.BookFacetPageDTO;
+import com.elibrary.dto.BookImportReportDTO;
+import com.elibrary.dto.BookSuggestionDTO;
+import com.elibrary.dto.BookSummaryDTO;
+import com.elibrary.dto.PageDTO;
+import com.elibrary.service.BookImportFormat;
+import com.elibrary.service.BookImportService;
 import com.elibrary.service.BookService;
 import jakarta.validation.Valid;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -16,29 +27,73 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<List<BookDTO>> getAllBooks() {
+    public ResponseEntity<List<BookSummaryDTO>> getAllBooks() {
         return ResponseEntity.ok(bookService.getAllBooks());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<BookSummaryDTO>> getBooksPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(bookService.getBooksPage(cursor, size, sort));
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonResponses.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        return NdjsonResponses.of(bookService::streamAllBooks, objectMapper);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<BookDTO> getBookById(@PathVariable String id) {
         return ResponseEntity.ok(bookService.getBookById(id));
     }
 
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<BookSummaryDTO>> getRecommendations(@PathVariable String id,
+                                                                   @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(bookService.getRecommendations(id, limit));
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<BookDTO>> searchBooks(@RequestParam String keyword) {
+    public ResponseEntity<List<BookSummaryDTO>> searchBooks(@RequestParam String keyword) {
         return ResponseEntity.ok(bookService.searchBooks(keyword));
     }
 
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<BookSuggestionDTO>> autocomplete(@RequestParam String prefix,
+                                                                @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(bookService.autocomplete(prefix, limit));
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<BookFacetPageDTO> facetSearch(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) Integer decade,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "title") String sort) {
+        return ResponseEntity.ok(bookService.facetSearch(keyword, categoryId, author, decade, available, page, size,
+                sort));
+    }
+
     @GetMapping("/available")
-    public ResponseEntity<List<BookDTO>> getAvailableBooks() {
-        return ResponseEntity.ok(bookService.getAvailableBooks());
+    public ResponseEntity<PageDTO<BookSummaryDTO>> getAvailableBooks(
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(bookService.getAvailableBooks(categoryId, page, size));
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<BookDTO>> getBooksByCategory(@PathVariable String categoryId) {
+    public ResponseEntity<List<BookSummaryDTO>> getBooksByCategory(@PathVariable String categoryId) {
         return ResponseEntity.ok(bookService.getBooksByCategory(categoryId));
     }
 
@@ -47,6 +102,16 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(bookService.createBook(bookDTO));
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<BookImportReportDTO> importBooksCsv(InputStream body) {
+        return ResponseEntity.ok(bookImportService.importBooks(body, BookImportFormat.CSV));
+    }
+
+    @PostMapping(value = "/import", consumes = NdjsonResponses.NDJSON)
+    public ResponseEntity<BookImportReportDTO> importBooksNdjson(InputStream body) {
+        return ResponseEntity.ok(bookImportService.importBooks(body, BookImportFormat.NDJSON));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<BookDTO> updateBook(@PathVariable String id, @Valid @RequestBody BookDTO bookDTO) {
         return ResponseEntity.ok(bookService.updateBook(id, bookDTO));
@@ -0,0 +1,54 @@
+package com.elibrary.controller;
+
+import com.elibrary.dto.BookDTO;
+import com.elibrary.dto.CategoryDTO;
+import com.elibrary.service.ReactiveCatalogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Streaming, non-blocking catalog reads for the public front end. Each item is written as
+ * it arrives and the next one is only requested once the client has taken it.
+ */
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class CatalogStreamController {
+
+    private final ReactiveCatalogService catalogService;
+
+    @GetMapping(value = "/books", produces = { NdjsonResponses.NDJSON, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<BookDTO> streamBooks() {
+        return catalogService.streamAllBooks();
+    }
+
+    @GetMapping("/books/{id}")
+    public Mono<BookDTO> getBook(@PathVariable String id) {
+        return catalogService.getBookById(id);
+    }
+
+    @GetMapping(value = "/books/search", produces = { NdjsonResponses.NDJSON, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<BookDTO> searchBooks(@RequestParam String keyword) {
+        return catalogService.searchBooks(keyword);
+    }
+
+    @GetMapping(value = "/books/available", produces = { NdjsonResponses.NDJSON, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<BookDTO> streamAvailableBooks() {
+        return catalogService.getAvailableBooks();
+    }
+
+    @GetMapping(value = "/books/category/{categoryId}",
+            produces = { NdjsonResponses.NDJSON, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<BookDTO> streamBooksByCategory(@PathVariable String categoryId) {
+        return catalogService.getBooksByCategory(categoryId);
+    }
+
+    @GetMapping(value = "/categories", produces = { NdjsonResponses.NDJSON, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<CategoryDTO> streamCategories() {
+        return catalogService.streamAllCategories();
+    }
+}
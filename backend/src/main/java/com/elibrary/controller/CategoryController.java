@@ -1,12 +1,15 @@
 package com.elibrary.controller;
 
+import com.elibrary.dto.CursorPageDTO;
 import com.elibrary.dto.CategoryDTO;
 import com.elibrary.service.CategoryService;
 import jakarta.validation.Valid;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 @RestController
@@ -16,12 +19,26 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<List<CategoryDTO>> getAllCategories() {
         return ResponseEntity.ok(categoryService.getAllCategories());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<CategoryDTO>> getCategoriesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(categoryService.getCategoriesPage(cursor, size, sort));
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonResponses.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportCategories() {
+        return NdjsonResponses.of(categoryService::streamAllCategories, objectMapper);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable String id) {
         return ResponseEntity.ok(categoryService.getCategoryById(id));
@@ -0,0 +1,22 @@
+package com.elibrary.controller;
+
+import com.elibrary.dto.IndexUsageDTO;
+import com.elibrary.service.IndexUsageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/indexes")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class IndexController {
+
+    private final IndexUsageService indexUsageService;
+
+    @GetMapping("/usage")
+    public ResponseEntity<List<IndexUsageDTO>> getIndexUsage() {
+        return ResponseEntity.ok(indexUsageService.getIndexUsage());
+    }
+}
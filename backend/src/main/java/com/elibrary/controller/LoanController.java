@@ -1,11 +1,18 @@
 package com.elibrary.controller;
 
+import com.elibrary.dto.CursorPageDTO;
+import com.elibrary.dto.LoanBatchResultDTO;
+import com.elibrary.dto.LoanCheckoutRequestDTO;
 import com.elibrary.dto.LoanDTO;
+import com.elibrary.dto.LoanSnapshotDriftDTO;
 import com.elibrary.service.LoanService;
+import com.elibrary.service.LoanSnapshotService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 @RestController
@@ -15,12 +22,27 @@ import java.util.List;
 public class LoanController {
 
     private final LoanService loanService;
+    private final LoanSnapshotService loanSnapshotService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<List<LoanDTO>> getAllLoans() {
         return ResponseEntity.ok(loanService.getAllLoans());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<LoanDTO>> getLoansPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(loanService.getLoansPage(cursor, size, sort));
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonResponses.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportLoans() {
+        return NdjsonResponses.of(loanService::streamAllLoans, objectMapper);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<LoanDTO> getLoanById(@PathVariable String id) {
         return ResponseEntity.ok(loanService.getLoanById(id));
@@ -49,6 +71,17 @@ public class LoanController {
                 .body(loanService.checkoutBook(bookId, userId));
     }
 
+    // Items are processed independently; the response reports each one in request order
+    @PostMapping("/checkout/batch")
+    public ResponseEntity<LoanBatchResultDTO> checkoutBooks(@RequestBody List<LoanCheckoutRequestDTO> requests) {
+        return ResponseEntity.ok(loanService.checkoutBooks(requests));
+    }
+
+    @PostMapping("/return/batch")
+    public ResponseEntity<LoanBatchResultDTO> returnBooks(@RequestBody List<String> loanIds) {
+        return ResponseEntity.ok(loanService.returnBooks(loanIds));
+    }
+
     @PostMapping("/{id}/return")
     public ResponseEntity<LoanDTO> returnBook(@PathVariable String id) {
         return ResponseEntity.ok(loanService.returnBook(id));
@@ -60,4 +93,14 @@ public class LoanController {
             @RequestParam(defaultValue = "7") int days) {
         return ResponseEntity.ok(loanService.extendLoan(id, days));
     }
+
+    @GetMapping("/snapshots/drift")
+    public ResponseEntity<LoanSnapshotDriftDTO> checkSnapshotDrift() {
+        return ResponseEntity.ok(loanSnapshotService.checkDrift(false));
+    }
+
+    @PostMapping("/snapshots/repair")
+    public ResponseEntity<LoanSnapshotDriftDTO> repairSnapshots() {
+        return ResponseEntity.ok(loanSnapshotService.checkDrift(true));
+    }
 }
@@ -0,0 +1,40 @@
+package com.elibrary.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a cursor-backed stream as newline-delimited JSON without collecting it first.
+ */
+final class NdjsonResponses {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private static final int FLUSH_EVERY = 500;
+
+    private NdjsonResponses() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> of(Supplier<Stream<T>> source, ObjectMapper objectMapper) {
+        StreamingResponseBody body = out -> {
+            try (Stream<T> items = source.get()) {
+                int written = 0;
+                for (T item : (Iterable<T>) items::iterator) {
+                    out.write(objectMapper.writeValueAsBytes(item));
+                    out.write('\n');
+                    if (++written % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                }
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+}
@@ -1,12 +1,15 @@
 package com.elibrary.controller;
 
+import com.elibrary.dto.CursorPageDTO;
 import com.elibrary.dto.UserDTO;
 import com.elibrary.service.UserService;
 import jakarta.validation.Valid;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 @RestController
@@ -16,12 +19,26 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<List<UserDTO>> getAllUsers() {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<UserDTO>> getUsersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(userService.getUsersPage(cursor, size, sort));
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonResponses.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return NdjsonResponses.of(userService::streamAllUsers, objectMapper);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserDTO> getUserById(@PathVariable String id) {
         return ResponseEntity.ok(userService.getUserById(id));
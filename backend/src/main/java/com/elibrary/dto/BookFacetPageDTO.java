@@ -0,0 +1,23 @@
+package com.elibrary.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * A page of books matching a faceted search, with the counts per category, author, publication
+ * decade and availability. Each facet counts the matches of every filter except its own.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookFacetPageDTO {
+    private List<BookSummaryDTO> items;
+    private long total;
+    private int page;
+    private int size;
+    private List<FacetCountDTO> categories;
+    private List<FacetCountDTO> authors;
+    private List<FacetCountDTO> decades;
+    private List<FacetCountDTO> availability;
+}
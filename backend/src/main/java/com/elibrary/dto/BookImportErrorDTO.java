@@ -0,0 +1,13 @@
+package com.elibrary.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookImportErrorDTO {
+    private long row;
+    private String isbn;
+    private String message;
+}
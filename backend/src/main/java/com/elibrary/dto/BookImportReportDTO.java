@@ -0,0 +1,19 @@
+package com.elibrary.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookImportReportDTO {
+    private long received;
+    private long imported;
+    private long duplicates;
+    private long failed;
+    private List<BookImportErrorDTO> errors;
+    private boolean errorsTruncated;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
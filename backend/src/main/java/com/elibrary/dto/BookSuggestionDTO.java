@@ -0,0 +1,18 @@
+package com.elibrary.dto;
+
+import lombok.*;
+
+/**
+ * An autocomplete suggestion: a title or an author name. bookId is set when the
+ * suggestion stands for a single book, so the client can open it directly.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSuggestionDTO {
+    private String text;
+    private String field;
+    private String bookId;
+    private int bookCount;
+}
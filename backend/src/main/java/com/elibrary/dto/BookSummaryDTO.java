@@ -0,0 +1,24 @@
+package com.elibrary.dto;
+
+import lombok.*;
+
+/**
+ * Compact form of {@link BookDTO} returned by book listings; the description is only served
+ * by the single-book endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSummaryDTO {
+    private String id;
+    private String title;
+    private String author;
+    private String isbn;
+    private Integer publishedYear;
+    private Boolean available;
+    private Integer totalCopies;
+    private Integer availableCopies;
+    private String categoryId;
+    private String categoryName;
+}
@@ -0,0 +1,14 @@
+package com.elibrary.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryTopTitlesDTO {
+    private String categoryId;
+    private String categoryName;
+    private List<TopTitleDTO> titles;
+}
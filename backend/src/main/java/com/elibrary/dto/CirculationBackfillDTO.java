@@ -0,0 +1,16 @@
+package com.elibrary.dto;
+
+import lombok.*;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CirculationBackfillDTO {
+    // Days before this one were rebuilt; later days keep their live updates
+    private LocalDate before;
+    private long loans;
+    private long rollups;
+    private long durationMillis;
+}
@@ -0,0 +1,15 @@
+package com.elibrary.dto;
+
+import lombok.*;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CirculationDayDTO {
+    private LocalDate day;
+    private long checkouts;
+    private long returns;
+    private long overdue;
+}
@@ -0,0 +1,22 @@
+package com.elibrary.dto;
+
+import lombok.*;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CirculationReportDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private String categoryId;
+    private String categoryName;
+    private long checkouts;
+    private long returns;
+    private long overdue;
+    // Loans gone overdue per checkout over the range, 0 without checkouts
+    private double overdueRate;
+    private List<CirculationDayDTO> days;
+}
@@ -0,0 +1,13 @@
+package com.elibrary.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetCountDTO {
+    private String value;
+    private String label;
+    private long count;
+}
@@ -0,0 +1,17 @@
+package com.elibrary.dto;
+
+import lombok.*;
+import java.util.Date;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IndexUsageDTO {
+    private String collection;
+    private String name;
+    private Map<String, Object> key;
+    private long ops;
+    private Date since;
+}
@@ -0,0 +1,16 @@
+package com.elibrary.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBatchItemDTO {
+    // Position of the item in the request
+    private int index;
+    private boolean success;
+    private LoanDTO loan;
+    private String reason;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.elibrary.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBatchResultDTO {
+    private int succeeded;
+    private int failed;
+    private List<LoanBatchItemDTO> items;
+}
@@ -0,0 +1,12 @@
+package com.elibrary.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanCheckoutRequestDTO {
+    private String bookId;
+    private String userId;
+}
@@ -0,0 +1,16 @@
+package com.elibrary.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanSnapshotDriftDTO {
+    private long checked;
+    private long missing;
+    private long drifted;
+    private long repaired;
+    private List<String> sampleLoanIds;
+}
@@ -0,0 +1,19 @@
+package com.elibrary.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * One page of an offset-paged listing, with the total so clients know whether to ask for more.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageDTO<T> {
+    private List<T> items;
+    private long total;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
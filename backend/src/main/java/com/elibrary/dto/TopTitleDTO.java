@@ -0,0 +1,15 @@
+package com.elibrary.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopTitleDTO {
+    private String bookId;
+    private String title;
+    private long checkouts;
+    private long returns;
+    private long overdue;
+}
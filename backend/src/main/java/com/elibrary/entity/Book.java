@@ -1,6 +1,7 @@
 package com.elibrary.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -59,4 +60,8 @@ public class Book {
 
     @Field("updated_at")
     private LocalDateTime updatedAt;
+
+    // Bumped by every inventory update so concurrent full-document saves fail instead of overwriting counts
+    @Version
+    private Long version;
 }
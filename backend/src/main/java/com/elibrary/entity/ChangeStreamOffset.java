@@ -0,0 +1,25 @@
+package com.elibrary.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Resume token of the last change every subscriber has handled, one per watched collection
+@Document(collection = "change_stream_offsets")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeStreamOffset {
+
+    @Id
+    private String collection;
+
+    private String resumeToken;
+
+    @Field("updated_at")
+    private LocalDateTime updatedAt;
+}
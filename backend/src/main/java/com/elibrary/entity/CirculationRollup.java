@@ -0,0 +1,48 @@
+package com.elibrary.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Checkouts, returns and loans gone overdue of one book on one day, labelled with the book's
+// category and title as of the latest event; analytics read these instead of the loans
+@Document(collection = "circulation_rollups")
+@CompoundIndex(name = "category_day", def = "{ 'categoryId': 1, 'day': 1 }")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CirculationRollup {
+
+    // Day and book id, see key()
+    @Id
+    private String id;
+
+    @Indexed(name = "day")
+    private LocalDate day;
+
+    private String bookId;
+
+    private String categoryId;
+
+    private String bookTitle;
+
+    private long checkouts;
+
+    private long returns;
+
+    private long overdue;
+
+    @Field("updated_at")
+    private LocalDateTime updatedAt;
+
+    public static String key(LocalDate day, String bookId) {
+        return day + ":" + bookId;
+    }
+}
@@ -1,14 +1,23 @@
 package com.elibrary.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import lombok.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Document(collection = "loans")
+// One index per LoanRepository query shape; MongoIndexManager creates them at startup and explains each shape
+@CompoundIndex(name = "user_status", def = "{ 'user.$id': 1, 'status': 1 }")
+@CompoundIndex(name = "book_status", def = "{ 'book.$id': 1, 'status': 1 }")
+@CompoundIndex(name = "status_due_date", def = "{ 'status': 1, 'due_date': 1 }")
+// The overdue sweep only ever looks at ACTIVE loans, so its index leaves returned history out
+@CompoundIndex(name = "active_due_date", def = "{ 'due_date': 1 }", partialFilter = "{ 'status': 'ACTIVE' }")
+@CompoundIndex(name = "overdue_sweep", def = "{ 'overdueSweepId': 1 }", sparse = true)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,12 +30,20 @@ public class Loan {
     @Id
     private String id;
 
-    @DBRef
+    // Lazy so listings can batch-resolve references instead of loading two documents per loan
+    @DBRef(lazy = true)
     private Book book;
 
-    @DBRef
+    @DBRef(lazy = true)
     private User user;
 
+    // Read-model snapshots of the referenced documents, only maintained in the SNAPSHOT loan read model
+    private String bookTitle;
+
+    private String bookIsbn;
+
+    private String userName;
+
     @Field("loan_date")
     private LocalDate loanDate;
 
@@ -41,6 +58,16 @@ public class Loan {
 
     private String notes;
 
+    // Set by batch returns so the batch can tell which loans it returned itself
+    private String returnBatchId;
+
+    // Day the overdue sweep first found the loan past due; unset for loans returned before any sweep saw them late
+    @Field("overdue_since")
+    private LocalDate overdueSince;
+
+    // Set by the sweep that first marked the loan OVERDUE, so that sweep can count the loans it marked
+    private String overdueSweepId;
+
     @Field("created_at")
     private LocalDateTime createdAt;
 
@@ -53,6 +80,9 @@ public class Loan {
     // For simple migration, we trust Service sets these or we use default values.
 
     public enum LoanStatus {
-        ACTIVE, RETURNED, OVERDUE
+        ACTIVE, RETURNED, OVERDUE;
+
+        // Loans still out, which count against a user's loan limit; OVERDUE is set by OverdueLoanSweeper
+        public static final List<LoanStatus> UNRETURNED = List.of(ACTIVE, OVERDUE);
     }
 }
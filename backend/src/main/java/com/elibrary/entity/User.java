@@ -1,6 +1,7 @@
 package com.elibrary.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -42,6 +43,9 @@ public class User {
     @Builder.Default
     private Boolean active = true;
 
+    // Unreturned loans, maintained atomically by checkout and return; null until first initialized
+    private Integer activeLoans;
+
     // Loans handled by repository query to avoid unbounded array in document
     // private List<Loan> loans = new ArrayList<>();
 
@@ -50,4 +54,7 @@ public class User {
 
     @Field("updated_at")
     private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
 }
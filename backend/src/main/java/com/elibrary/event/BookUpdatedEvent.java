@@ -0,0 +1,6 @@
+package com.elibrary.event;
+
+import com.elibrary.entity.Book;
+
+public record BookUpdatedEvent(Book book) {
+}
@@ -0,0 +1,15 @@
+package com.elibrary.event;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Receives changes to the watched collections in batches, on a thread of its own. Delivery is
+ * at least once: events handled just before a restart may be delivered again after it.
+ */
+public interface ChangeEventSubscriber {
+
+    Set<String> collections();
+
+    void onChanges(List<CollectionChangeEvent> events);
+}
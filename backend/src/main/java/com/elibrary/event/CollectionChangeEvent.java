@@ -0,0 +1,10 @@
+package com.elibrary.event;
+
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.Document;
+import java.time.Instant;
+
+// One change from a Mongo change stream; fullDocument is the current document, null for deletes
+public record CollectionChangeEvent(String collection, OperationType operation, String documentId,
+                                    Document fullDocument, Instant clusterTime) {
+}
@@ -0,0 +1,6 @@
+package com.elibrary.event;
+
+import com.elibrary.entity.User;
+
+public record UserUpdatedEvent(User user) {
+}
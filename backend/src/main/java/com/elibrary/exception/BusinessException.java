@@ -2,10 +2,38 @@ package com.elibrary.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import java.util.Locale;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BusinessException extends RuntimeException {
-    public BusinessException(String message) {
+
+    // Low-cardinality cause, used as a metric tag where the message carries ids and names
+    public enum Reason {
+        INVALID_REQUEST,
+        INVALID_CREDENTIALS,
+        DUPLICATE,
+        IN_USE,
+        NOT_FOUND,
+        USER_INACTIVE,
+        LOAN_LIMIT_REACHED,
+        NO_COPIES_AVAILABLE,
+        ALREADY_RETURNED,
+        LOAN_NOT_EXTENDABLE,
+        CONCURRENT_MODIFICATION;
+
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Reason reason;
+
+    public BusinessException(Reason reason, String message) {
         super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
     }
 }
@@ -1,14 +1,29 @@
 package com.elibrary.repository;
 
 import com.elibrary.entity.Book;
+import com.elibrary.repository.projection.BookAvailability;
+import com.elibrary.repository.projection.BookCirculationRef;
+import com.elibrary.repository.projection.BookLabel;
+import com.elibrary.repository.projection.BookRef;
+import com.elibrary.repository.projection.BookSearchText;
+import com.elibrary.repository.projection.BookSummary;
+import com.elibrary.repository.projection.CategoryBookCount;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends MongoRepository<Book, String> {
+public interface BookRepository extends MongoRepository<Book, String>, BookRepositoryCustom {
 
     Optional<Book> findByIsbn(String isbn);
 
@@ -18,6 +33,17 @@ public interface BookRepository extends MongoRepository<Book, String> {
 
     List<Book> findByCategory_Id(String categoryId);
 
+    long countByCategory_Id(String categoryId);
+
+    boolean existsByCategory_Id(String categoryId);
+
+    // '$category.$id' is not a valid aggregation field path, so the DBRef id is read with $getField
+    @Aggregation(pipeline = {
+            "{ '$match': { 'category': { '$ne': null } } }",
+            "{ '$group': { '_id': { '$getField': { 'field': { '$literal': '$id' }, 'input': '$category' } }, 'count': { '$sum': 1 } } }"
+    })
+    List<CategoryBookCount> countBooksGroupedByCategory();
+
     List<Book> findByAvailableTrue();
 
     @Query("{ 'availableCopies': { $gt: 0 } }")
@@ -27,4 +53,44 @@ public interface BookRepository extends MongoRepository<Book, String> {
     List<Book> searchBooks(String keyword);
 
     boolean existsByIsbn(String isbn);
+
+    @Query(value = "{ 'isbn': { '$in': ?0 } }", fields = "{ 'isbn': 1 }")
+    List<Book> findIsbnsByIsbnIn(Collection<String> isbns);
+
+    Stream<Book> streamAllBy();
+
+    // Projection return types make Spring Data select only the projection's fields
+
+    List<BookSummary> findSummariesBy();
+
+    Window<BookSummary> findSummariesBy(ScrollPosition position, Sort sort, Limit limit);
+
+    List<BookSummary> findSummariesByIdIn(Collection<String> ids);
+
+    List<BookSummary> findSummariesByCategory_Id(String categoryId);
+
+    @Query("{ 'availableCopies': { $gt: 0 } }")
+    List<BookSummary> findAvailableBookSummaries(Pageable pageable);
+
+    List<BookSummary> findSummariesByCategory_IdAndAvailableCopiesGreaterThan(String categoryId, int copies,
+                                                                             Pageable pageable);
+
+    long countByAvailableCopiesGreaterThan(int copies);
+
+    long countByCategory_IdAndAvailableCopiesGreaterThan(String categoryId, int copies);
+
+    @Query("{ '$or': [ { 'title': { '$regex': ?0, '$options': 'i' } }, { 'author': { '$regex': ?0, '$options': 'i' } } ] }")
+    List<BookSummary> searchBookSummaries(String keyword);
+
+    List<BookRef> findRefsByIdIn(Collection<String> ids);
+
+    List<BookCirculationRef> findCirculationRefsByIdIn(Collection<String> ids);
+
+    Stream<BookAvailability> streamAvailabilityByOrderByIdAsc();
+
+    List<BookAvailability> findAvailabilityByIdIn(Collection<String> ids);
+
+    Stream<BookLabel> streamLabelsBy();
+
+    Stream<BookSearchText> streamSearchTextBy();
 }
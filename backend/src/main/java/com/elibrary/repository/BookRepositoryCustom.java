@@ -0,0 +1,45 @@
+package com.elibrary.repository;
+
+import com.elibrary.entity.Book;
+import com.elibrary.repository.projection.BookFacets;
+import org.springframework.data.domain.Sort;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface BookRepositoryCustom {
+
+    // Takes one copy if any is available and returns the updated book, or empty if none was left
+    Optional<Book> reserveCopy(String bookId);
+
+    // Puts one copy back, never exceeding totalCopies, and returns the updated book
+    Optional<Book> releaseCopy(String bookId);
+
+    // Takes up to count copies in one update and returns how many were taken, how many are left and the new version
+    CopyReservation reserveCopies(String bookId, int count);
+
+    // version is null when nothing was taken
+    record CopyReservation(int granted, int remaining, Long version) {
+    }
+
+    // Puts back the given number of copies per book in one unordered bulk write, never exceeding totalCopies
+    void releaseCopies(Map<String, Integer> countsByBookId);
+
+    // Rewrites every 'available' flag that disagrees with availableCopies and returns how many were wrong
+    long syncAvailableFlags();
+
+    // Returns one page of the books matching the query and the facet counts around it, in one aggregation
+    BookFacets facetSearch(FacetQuery query);
+
+    // matchingIds, when set, replaces the keyword regex with ids already resolved by the search index
+    record FacetQuery(String keyword, Collection<String> matchingIds, String categoryId, String author,
+                      Integer decade, Boolean available, Sort sort, long offset, int limit, int authorLimit) {
+    }
+
+    String DUPLICATE_ISBN = "Duplicate ISBN";
+
+    // Inserts without stopping at the first failed document; returns each failed position with its reason,
+    // DUPLICATE_ISBN when the unique index rejected it
+    Map<Integer, String> insertUnordered(List<Book> books);
+}
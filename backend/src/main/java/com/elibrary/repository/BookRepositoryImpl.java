@@ -0,0 +1,250 @@
+package com.elibrary.repository;
+
+import com.elibrary.entity.Book;
+import com.elibrary.repository.projection.BookFacets;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AccumulatorOperators;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final String CATEGORY = "category";
+    private static final String AUTHOR = "author";
+    private static final String DECADE = "decade";
+    private static final String AVAILABILITY = "availability";
+    private static final String[] SUMMARY_FIELDS = { "title", "author", "isbn", "publishedYear", "available",
+            "totalCopies", "availableCopies", "category" };
+    private static final Sort BY_COUNT = Sort.by(Sort.Direction.DESC, "count").and(Sort.by("_id"));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Book> reserveCopy(String bookId) {
+        Query query = Query.query(Criteria.where("id").is(bookId).and("availableCopies").gt(0));
+        // Every $set expression reads the pre-update document, so 'available' is derived from the old count
+        SetOperation set = SetOperation.set("availableCopies")
+                .toValueOf(ArithmeticOperators.Subtract.valueOf("availableCopies").subtract(1))
+                .and().set("available")
+                .toValueOf(ComparisonOperators.Gt.valueOf("availableCopies").greaterThanValue(1))
+                .and().set("version").toValueOf(nextVersion())
+                .and().set("updatedAt").toValue(LocalDateTime.now());
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, AggregationUpdate.update().set(set),
+                FindAndModifyOptions.options().returnNew(true), Book.class));
+    }
+
+    @Override
+    public Optional<Book> releaseCopy(String bookId) {
+        Query query = Query.query(Criteria.where("id").is(bookId)
+                .andOperator(Criteria.expr(ComparisonOperators.Lt.valueOf("availableCopies")
+                        .lessThan("totalCopies"))));
+        SetOperation set = SetOperation.set("availableCopies")
+                .toValueOf(ArithmeticOperators.Add.valueOf("availableCopies").add(1))
+                .and().set("available").toValue(true)
+                .and().set("version").toValueOf(nextVersion())
+                .and().set("updatedAt").toValue(LocalDateTime.now());
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, AggregationUpdate.update().set(set),
+                FindAndModifyOptions.options().returnNew(true), Book.class));
+    }
+
+    @Override
+    public CopyReservation reserveCopies(String bookId, int count) {
+        Query query = Query.query(Criteria.where("id").is(bookId).and("availableCopies").gt(0));
+        SetOperation set = SetOperation.set("availableCopies")
+                .toValueOf(AccumulatorOperators.Max.maxOf(ArithmeticOperators.Subtract.valueOf("availableCopies")
+                        .subtract(count)).and(LiteralOperators.Literal.asLiteral(0)))
+                .and().set("available")
+                .toValueOf(ComparisonOperators.Gt.valueOf("availableCopies").greaterThanValue(count))
+                .and().set("version").toValueOf(nextVersion())
+                .and().set("updatedAt").toValue(LocalDateTime.now());
+        // The pre-update document tells how many of the requested copies were actually there
+        Book before = mongoTemplate.findAndModify(query, AggregationUpdate.update().set(set),
+                FindAndModifyOptions.options().returnNew(false), Book.class);
+        if (before == null) {
+            return new CopyReservation(0, 0, null);
+        }
+        int granted = Math.min(count, before.getAvailableCopies());
+        long version = before.getVersion() != null ? before.getVersion() + 1 : 1;
+        return new CopyReservation(granted, before.getAvailableCopies() - granted, version);
+    }
+
+    @Override
+    public void releaseCopies(Map<String, Integer> countsByBookId) {
+        if (countsByBookId.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Book.class);
+        countsByBookId.forEach((bookId, count) -> {
+            Query query = Query.query(Criteria.where("id").is(bookId)
+                    .andOperator(Criteria.expr(ComparisonOperators.Lt.valueOf("availableCopies")
+                            .lessThan("totalCopies"))));
+            SetOperation set = SetOperation.set("availableCopies")
+                    .toValueOf(AccumulatorOperators.Min.minOf(ArithmeticOperators.Add.valueOf("availableCopies")
+                            .add(count)).and("totalCopies"))
+                    .and().set("available").toValue(true)
+                    .and().set("version").toValueOf(nextVersion())
+                    .and().set("updatedAt").toValue(LocalDateTime.now());
+            bulk.updateOne(query, AggregationUpdate.update().set(set));
+        });
+        bulk.execute();
+    }
+
+    @Override
+    public long syncAvailableFlags() {
+        AggregationExpression inStock = ComparisonOperators.Gt.valueOf("availableCopies").greaterThanValue(0);
+        Query query = Query.query(Criteria.expr(ComparisonOperators.Ne.valueOf("available").notEqualTo(inStock)));
+        return mongoTemplate.updateMulti(query, AggregationUpdate.update().set("available").toValueOf(inStock),
+                Book.class).getModifiedCount();
+    }
+
+    @Override
+    public BookFacets facetSearch(FacetQuery query) {
+        Map<String, Criteria> filters = facetFilters(query);
+        Criteria all = allExcept(filters, null);
+        // '$category.$id' is not a valid aggregation field path, so the DBRef id is read with $getField
+        AggregationExpression categoryId = context -> new Document("$getField",
+                new Document("field", new Document("$literal", "$id")).append("input", "$category"));
+        AggregationExpression decade = ArithmeticOperators.Subtract.valueOf("publishedYear")
+                .subtract(ArithmeticOperators.Mod.valueOf("publishedYear").mod(10));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(keywordCriteria(query)),
+                Aggregation.facet(
+                                Aggregation.match(all),
+                                Aggregation.sort(storedSort(query.sort())),
+                                Aggregation.skip(query.offset()),
+                                Aggregation.limit(query.limit()),
+                                Aggregation.project(SUMMARY_FIELDS))
+                        .as("results")
+                        .and(Aggregation.match(all), Aggregation.count().as("count")).as("total")
+                        .and(countBy(allExcept(filters, CATEGORY), Aggregation.project().and(categoryId).as("key"),
+                                BY_COUNT, 0))
+                        .as("categories")
+                        .and(countBy(allExcept(filters, AUTHOR), Aggregation.project().and(AUTHOR).as("key"),
+                                BY_COUNT, query.authorLimit()))
+                        .as("authors")
+                        .and(countBy(allExcept(filters, DECADE), Aggregation.project().and(decade).as("key"),
+                                Sort.by("_id"), 0))
+                        .as("decades")
+                        .and(countBy(allExcept(filters, AVAILABILITY), Aggregation.project()
+                                .and(ComparisonOperators.Gt.valueOf("availableCopies").greaterThanValue(0)).as("key"),
+                                BY_COUNT, 0))
+                        .as(AVAILABILITY),
+                Aggregation.project("results", "categories", "authors", "decades", AVAILABILITY)
+                        .and(ConditionalOperators.ifNull(ArrayOperators.ArrayElemAt.arrayOf("total.count").elementAt(0))
+                                .then(0))
+                        .as("total"));
+        BookFacets facets = mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Book.class),
+                BookFacets.class).getUniqueMappedResult();
+        return facets != null ? facets : new BookFacets();
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Book> books) {
+        if (books.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Book.class).insert(books).execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            Map<Integer, String> failures = new HashMap<>();
+            ex.getErrors().forEach(error -> failures.put(error.getIndex(),
+                    error.getCode() == DUPLICATE_KEY ? DUPLICATE_ISBN : error.getMessage()));
+            return failures;
+        }
+    }
+
+    private static Criteria keywordCriteria(FacetQuery query) {
+        if (query.matchingIds() != null) {
+            return Criteria.where("_id").in(MongoIds.toStored(query.matchingIds()));
+        }
+        if (query.keyword() == null || query.keyword().isBlank()) {
+            return new Criteria();
+        }
+        Pattern pattern = Pattern.compile(Pattern.quote(query.keyword().trim()), Pattern.CASE_INSENSITIVE);
+        return new Criteria().orOperator(Criteria.where("title").regex(pattern), Criteria.where(AUTHOR).regex(pattern));
+    }
+
+    private static Map<String, Criteria> facetFilters(FacetQuery query) {
+        Map<String, Criteria> filters = new LinkedHashMap<>();
+        if (query.categoryId() != null) {
+            filters.put(CATEGORY, Criteria.where("category.$id").is(MongoIds.toStored(query.categoryId())));
+        }
+        if (query.author() != null) {
+            filters.put(AUTHOR, Criteria.where(AUTHOR).is(query.author()));
+        }
+        if (query.decade() != null) {
+            filters.put(DECADE, Criteria.where("publishedYear").gte(query.decade()).lt(query.decade() + 10));
+        }
+        if (query.available() != null) {
+            Criteria inStock = Criteria.where("availableCopies");
+            filters.put(AVAILABILITY, query.available() ? inStock.gt(0) : inStock.not().gt(0));
+        }
+        return filters;
+    }
+
+    // A facet ignores its own filter, so the sidebar keeps showing the other values to switch to
+    private static Criteria allExcept(Map<String, Criteria> filters, String facet) {
+        List<Criteria> applied = new ArrayList<>();
+        filters.forEach((name, criteria) -> {
+            if (!name.equals(facet)) {
+                applied.add(criteria);
+            }
+        });
+        return applied.isEmpty() ? new Criteria() : new Criteria().andOperator(applied);
+    }
+
+    private static AggregationOperation[] countBy(Criteria filter, ProjectionOperation key, Sort order, int limit) {
+        List<AggregationOperation> stages = new ArrayList<>(List.of(
+                Aggregation.match(filter),
+                key,
+                Aggregation.group("key").count().as("count"),
+                Aggregation.match(Criteria.where("_id").ne(null)),
+                Aggregation.sort(order)));
+        if (limit > 0) {
+            stages.add(Aggregation.limit(limit));
+        }
+        stages.add(Aggregation.project("count").and(ConvertOperators.ToString.toString("$_id")).as("value"));
+        return stages.toArray(AggregationOperation[]::new);
+    }
+
+    private static Sort storedSort(Sort sort) {
+        return Sort.by(sort.stream()
+                .map(order -> "id".equals(order.getProperty()) ? order.withProperty("_id") : order)
+                .toList());
+    }
+
+    private static ArithmeticOperators.Add nextVersion() {
+        return ArithmeticOperators.Add.valueOf(ConditionalOperators.ifNull("version").then(0L)).add(1);
+    }
+}
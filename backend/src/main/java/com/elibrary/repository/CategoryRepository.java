@@ -1,13 +1,45 @@
 package com.elibrary.repository;
 
 import com.elibrary.entity.Category;
+import com.elibrary.repository.projection.CategoryRef;
+import com.elibrary.repository.projection.CategorySummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CategoryRepository extends MongoRepository<Category, String> {
     Optional<Category> findByName(String name);
 
     boolean existsByName(String name);
+
+    Window<Category> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Stream<Category> streamAllBy();
+
+    // Every category with its book count in one round trip. Books have no index on category, so the books
+    // are grouped once and merged in with $unionWith rather than looked up per category; categories without
+    // books keep a count of 0 and counts for deleted categories, which have no name, are dropped.
+    // '$category.$id' is not a valid aggregation field path, so the DBRef id is read with $getField
+    @Aggregation(pipeline = {
+            "{ '$project': { 'name': 1, 'description': 1, 'bookCount': { '$literal': 0 } } }",
+            "{ '$unionWith': { 'coll': 'books', 'pipeline': ["
+                    + "{ '$match': { 'category': { '$ne': null } } },"
+                    + "{ '$group': { '_id': { '$getField': { 'field': { '$literal': '$id' }, 'input': '$category' } }, 'bookCount': { '$sum': 1 } } }"
+                    + "] } }",
+            "{ '$group': { '_id': '$_id', 'name': { '$max': '$name' }, 'description': { '$max': '$description' }, 'bookCount': { '$sum': '$bookCount' } } }",
+            "{ '$match': { 'name': { '$ne': null } } }",
+            "{ '$sort': { '_id': 1 } }"
+    })
+    List<CategorySummary> findAllWithBookCounts();
+
+    List<CategoryRef> findRefsByIdIn(Collection<String> ids);
 }
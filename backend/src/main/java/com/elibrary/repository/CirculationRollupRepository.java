@@ -0,0 +1,15 @@
+package com.elibrary.repository;
+
+import com.elibrary.entity.CirculationRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+
+@Repository
+public interface CirculationRollupRepository extends MongoRepository<CirculationRollup, String>,
+        CirculationRollupRepositoryCustom {
+
+    long countByDayBefore(LocalDate day);
+
+    long deleteByDayBefore(LocalDate day);
+}
@@ -0,0 +1,23 @@
+package com.elibrary.repository;
+
+import com.elibrary.repository.projection.CategoryTitles;
+import com.elibrary.repository.projection.CirculationTotals;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface CirculationRollupRepositoryCustom {
+
+    // Adds each increment to the rollup of its day and book in one unordered bulk write, creating missing rollups
+    void increment(Collection<RollupIncrement> increments);
+
+    record RollupIncrement(LocalDate day, String bookId, String categoryId, String bookTitle,
+            long checkouts, long returns, long overdue) {
+    }
+
+    // Per-day sums over [from, to], optionally of one category, in day order; days without rollups are left out
+    List<CirculationTotals> sumByDay(LocalDate from, LocalDate to, String categoryId);
+
+    // The most checked-out books of each category over [from, to], at most limit per category
+    List<CategoryTitles> topTitlesByCategory(LocalDate from, LocalDate to, String categoryId, int limit);
+}
@@ -0,0 +1,97 @@
+package com.elibrary.repository;
+
+import com.elibrary.entity.CirculationRollup;
+import com.elibrary.repository.projection.CategoryTitles;
+import com.elibrary.repository.projection.CirculationTotals;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CirculationRollupRepositoryImpl implements CirculationRollupRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(Collection<RollupIncrement> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CirculationRollup.class);
+        for (RollupIncrement increment : increments) {
+            Update update = new Update()
+                    .setOnInsert("day", increment.day())
+                    .setOnInsert("bookId", increment.bookId())
+                    .inc("checkouts", increment.checkouts())
+                    .inc("returns", increment.returns())
+                    .inc("overdue", increment.overdue())
+                    .set("updatedAt", LocalDateTime.now());
+            // Labels follow the latest event; one that could not resolve the book keeps the stored ones
+            if (increment.categoryId() != null) {
+                update.set("categoryId", increment.categoryId());
+            }
+            if (increment.bookTitle() != null) {
+                update.set("bookTitle", increment.bookTitle());
+            }
+            Query query = Query.query(Criteria.where("id").is(CirculationRollup.key(increment.day(),
+                    increment.bookId())));
+            bulk.upsert(query, update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public List<CirculationTotals> sumByDay(LocalDate from, LocalDate to, String categoryId) {
+        TypedAggregation<CirculationRollup> aggregation = Aggregation.newAggregation(CirculationRollup.class,
+                Aggregation.match(range(from, to, categoryId)),
+                Aggregation.group("day")
+                        .sum("checkouts").as("checkouts")
+                        .sum("returns").as("returns")
+                        .sum("overdue").as("overdue"),
+                Aggregation.sort(Sort.by("_id")),
+                Aggregation.project("checkouts", "returns", "overdue").and("day").previousOperation());
+        return mongoTemplate.aggregate(aggregation, CirculationTotals.class).getMappedResults();
+    }
+
+    @Override
+    public List<CategoryTitles> topTitlesByCategory(LocalDate from, LocalDate to, String categoryId, int limit) {
+        AggregationExpression title = context -> new Document("bookId", "$_id.bookId")
+                .append("bookTitle", "$bookTitle")
+                .append("checkouts", "$checkouts")
+                .append("returns", "$returns")
+                .append("overdue", "$overdue");
+        TypedAggregation<CirculationRollup> aggregation = Aggregation.newAggregation(CirculationRollup.class,
+                Aggregation.match(range(from, to, categoryId)),
+                // In day order, so $last picks the title of the most recent rollup
+                Aggregation.sort(Sort.by("day")),
+                Aggregation.group("categoryId", "bookId")
+                        .sum("checkouts").as("checkouts")
+                        .sum("returns").as("returns")
+                        .sum("overdue").as("overdue")
+                        .last("bookTitle").as("bookTitle"),
+                Aggregation.sort(Sort.by(Sort.Order.desc("checkouts"), Sort.Order.asc("bookId"))),
+                // $push keeps the incoming order, so each category's list is already ranked
+                Aggregation.group("categoryId").push(title).as("titles"),
+                Aggregation.sort(Sort.by("_id")),
+                Aggregation.project().and(ArrayOperators.Slice.sliceArrayOf("titles").itemCount(limit)).as("titles"));
+        return mongoTemplate.aggregate(aggregation, CategoryTitles.class).getMappedResults();
+    }
+
+    private static Criteria range(LocalDate from, LocalDate to, String categoryId) {
+        Criteria criteria = Criteria.where("day").gte(from).lte(to);
+        return categoryId != null ? criteria.and("categoryId").is(categoryId) : criteria;
+    }
+}
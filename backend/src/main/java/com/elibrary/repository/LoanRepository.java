@@ -1,25 +1,83 @@
 package com.elibrary.repository;
 
 import com.elibrary.entity.Loan;
+import com.elibrary.repository.projection.BookLoanCount;
+import com.elibrary.repository.projection.LoanHistory;
+import com.elibrary.repository.projection.LoanLink;
+import com.elibrary.repository.projection.UserLoanCount;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface LoanRepository extends MongoRepository<Loan, String> {
+public interface LoanRepository extends MongoRepository<Loan, String>, LoanRepositoryCustom {
 
-    List<Loan> findByUser_Id(String userId);
+    // Derived queries on user.id or book.id match the whole DBRef document, which the user_status and
+    // book_status indexes on the $id field cannot serve, so these spell out the $id path.
+    // Ids must be in stored form, see MongoIds.toStored
+    @Query("{ 'user.$id': ?0 }")
+    List<Loan> findByUser_Id(Object userId);
 
-    List<Loan> findByBook_Id(String bookId);
+    @Query("{ 'book.$id': ?0 }")
+    List<Loan> findByBook_Id(Object bookId);
 
     List<Loan> findByStatus(Loan.LoanStatus status);
 
-    List<Loan> findByUser_IdAndStatus(String userId, Loan.LoanStatus status);
+    List<Loan> findByStatusIn(Collection<Loan.LoanStatus> statuses);
 
-    List<Loan> findByBook_IdAndStatus(String bookId, Loan.LoanStatus status);
+    @Query("{ 'user.$id': ?0, 'status': ?1 }")
+    List<Loan> findByUser_IdAndStatus(Object userId, Loan.LoanStatus status);
+
+    @Query("{ 'book.$id': ?0, 'status': ?1 }")
+    List<Loan> findByBook_IdAndStatus(Object bookId, Loan.LoanStatus status);
 
     List<Loan> findByStatusAndDueDateBefore(Loan.LoanStatus status, LocalDate date);
 
-    long countByUser_IdAndStatus(String userId, Loan.LoanStatus status);
+    @Query(value = "{ 'user.$id': ?0, 'status': { '$in': ?1 } }", count = true)
+    long countByUser_IdAndStatusIn(Object userId, Collection<Loan.LoanStatus> statuses);
+
+    // '$user.$id' is not a valid aggregation field path, so the DBRef id is read with $getField.
+    // userIds must be in stored form, see MongoIds.toStored
+    @Aggregation(pipeline = {
+            "{ '$match': { 'user.$id': { '$in': ?0 }, 'status': { '$in': ?1 } } }",
+            "{ '$group': { '_id': { '$getField': { 'field': { '$literal': '$id' }, 'input': '$user' } }, 'count': { '$sum': 1 } } }"
+    })
+    List<UserLoanCount> countByUserIdsAndStatusIn(Collection<Object> userIds, Collection<Loan.LoanStatus> statuses);
+
+    @Aggregation(pipeline = {
+            "{ '$match': { 'status': { '$in': ?0 } } }",
+            "{ '$group': { '_id': { '$getField': { 'field': { '$literal': '$id' }, 'input': '$user' } }, 'count': { '$sum': 1 } } }"
+    })
+    List<UserLoanCount> countAllByStatusInGroupedByUser(Collection<Loan.LoanStatus> statuses);
+
+    // Loans ever made per book, the popularity signal for autocomplete ranking
+    @Aggregation(pipeline = {
+            "{ '$match': { 'book': { '$ne': null } } }",
+            "{ '$group': { '_id': { '$getField': { 'field': { '$literal': '$id' }, 'input': '$book' } }, 'count': { '$sum': 1 } } }"
+    })
+    List<BookLoanCount> countAllGroupedByBook();
+
+    // Loans the given overdue sweep marked for the first time, per book
+    @Aggregation(pipeline = {
+            "{ '$match': { 'overdueSweepId': ?0 } }",
+            "{ '$group': { '_id': { '$getField': { 'field': { '$literal': '$id' }, 'input': '$book' } }, 'count': { '$sum': 1 } } }"
+    })
+    List<BookLoanCount> countByOverdueSweepIdGroupedByBook(String sweepId);
+
+    Window<Loan> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Stream<Loan> streamAllBy();
+
+    Stream<LoanLink> streamLinksBy();
+
+    Stream<LoanHistory> streamHistoryBy();
 }
@@ -0,0 +1,31 @@
+package com.elibrary.repository;
+
+import com.elibrary.entity.Loan;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface LoanRepositoryCustom {
+
+    // Moves an unreturned loan to RETURNED; empty if it does not exist or was already returned
+    Optional<Loan> markReturned(String loanId, LocalDate returnDate);
+
+    // Moves every unreturned loan among loanIds to RETURNED in one update and returns exactly those,
+    // found again by the batchId stamped on them
+    List<Loan> markReturned(Collection<String> loanIds, LocalDate returnDate, String batchId);
+
+    // Moves the due date of an unreturned loan, provided nobody changed it since it was read
+    Optional<Loan> changeDueDate(String loanId, LocalDate expectedDueDate, LocalDate newDueDate,
+            Loan.LoanStatus newStatus);
+
+    // Marks ACTIVE loans due in [dueFrom, dueBefore) as OVERDUE; a null dueFrom leaves the range open below.
+    // Loans going overdue for the first time also get overdueSince = dueBefore and the given sweepId
+    long markOverdue(LocalDate dueFrom, LocalDate dueBefore, String sweepId);
+
+    long updateBookSnapshot(String bookId, String bookTitle, String bookIsbn);
+
+    long updateUserSnapshot(String userId, String userName);
+
+    void updateSnapshot(String loanId, String bookTitle, String bookIsbn, String userName);
+}
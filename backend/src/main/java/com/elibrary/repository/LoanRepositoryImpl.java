@@ -0,0 +1,114 @@
+package com.elibrary.repository;
+
+import com.elibrary.entity.Loan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class LoanRepositoryImpl implements LoanRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Loan> markReturned(String loanId, LocalDate returnDate) {
+        Query query = Query.query(Criteria.where("id").is(loanId).and("status").ne(Loan.LoanStatus.RETURNED));
+        Update update = new Update()
+                .set("status", Loan.LoanStatus.RETURNED)
+                .set("returnDate", returnDate)
+                .set("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Loan.class));
+    }
+
+    @Override
+    public List<Loan> markReturned(Collection<String> loanIds, LocalDate returnDate, String batchId) {
+        Query query = Query.query(Criteria.where("id").in(loanIds).and("status").ne(Loan.LoanStatus.RETURNED));
+        Update update = new Update()
+                .set("status", Loan.LoanStatus.RETURNED)
+                .set("returnDate", returnDate)
+                .set("returnBatchId", batchId)
+                .set("updatedAt", LocalDateTime.now());
+        mongoTemplate.updateMulti(query, update, Loan.class);
+        return mongoTemplate.find(Query.query(Criteria.where("id").in(loanIds).and("returnBatchId").is(batchId)),
+                Loan.class);
+    }
+
+    @Override
+    public Optional<Loan> changeDueDate(String loanId, LocalDate expectedDueDate, LocalDate newDueDate,
+            Loan.LoanStatus newStatus) {
+        Query query = Query.query(Criteria.where("id").is(loanId)
+                .and("status").in(Loan.LoanStatus.UNRETURNED)
+                .and("dueDate").is(expectedDueDate));
+        Update update = new Update()
+                .set("dueDate", newDueDate)
+                .set("status", newStatus)
+                .set("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Loan.class));
+    }
+
+    @Override
+    public long markOverdue(LocalDate dueFrom, LocalDate dueBefore, String sweepId) {
+        Query firstTime = overdueQuery(dueFrom, dueBefore, true);
+        Update markFirstTime = new Update()
+                .set("status", Loan.LoanStatus.OVERDUE)
+                .set("overdueSince", dueBefore)
+                .set("overdueSweepId", sweepId)
+                .set("updatedAt", LocalDateTime.now());
+        long marked = mongoTemplate.updateMulti(firstTime, markFirstTime, Loan.class).getModifiedCount();
+        // Loans that were overdue before and got extended keep their first overdueSince
+        Query again = overdueQuery(dueFrom, dueBefore, false);
+        Update markAgain = new Update()
+                .set("status", Loan.LoanStatus.OVERDUE)
+                .set("updatedAt", LocalDateTime.now());
+        return marked + mongoTemplate.updateMulti(again, markAgain, Loan.class).getModifiedCount();
+    }
+
+    /**
+     * ACTIVE loans due in [dueFrom, dueBefore), optionally only those never marked overdue before.
+     * {@link com.elibrary.config.MongoIndexManager} checks the same query against the loan indexes.
+     */
+    public static Query overdueQuery(LocalDate dueFrom, LocalDate dueBefore, boolean firstTimeOnly) {
+        Criteria criteria = Criteria.where("status").is(Loan.LoanStatus.ACTIVE);
+        if (firstTimeOnly) {
+            criteria.and("overdueSince").exists(false);
+        }
+        Criteria dueDate = criteria.and("dueDate").lt(dueBefore);
+        if (dueFrom != null) {
+            dueDate.gte(dueFrom);
+        }
+        return Query.query(criteria);
+    }
+
+    @Override
+    public long updateBookSnapshot(String bookId, String bookTitle, String bookIsbn) {
+        Query query = Query.query(Criteria.where("book.$id").is(MongoIds.toStored(bookId)));
+        Update update = new Update().set("bookTitle", bookTitle).set("bookIsbn", bookIsbn);
+        return mongoTemplate.updateMulti(query, update, Loan.class).getModifiedCount();
+    }
+
+    @Override
+    public long updateUserSnapshot(String userId, String userName) {
+        Query query = Query.query(Criteria.where("user.$id").is(MongoIds.toStored(userId)));
+        Update update = new Update().set("userName", userName);
+        return mongoTemplate.updateMulti(query, update, Loan.class).getModifiedCount();
+    }
+
+    @Override
+    public void updateSnapshot(String loanId, String bookTitle, String bookIsbn, String userName) {
+        Update update = new Update()
+                .set("bookTitle", bookTitle)
+                .set("bookIsbn", bookIsbn)
+                .set("userName", userName);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(loanId)), update, Loan.class);
+    }
+}
@@ -0,0 +1,44 @@
+package com.elibrary.repository;
+
+import com.mongodb.DBRef;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Converts entity ids to the form Mongo stores them in, for hand-written queries
+ * and aggregations that compare against {@code _id} or DBRef {@code $id} values.
+ */
+public final class MongoIds {
+
+    private MongoIds() {
+    }
+
+    public static Object toStored(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    public static List<Object> toStored(Collection<String> ids) {
+        return ids.stream().map(MongoIds::toStored).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the id of a referenced entity without resolving it when it is still a lazy proxy.
+     */
+    public static <T> String referenceId(T reference, Function<T, String> idGetter) {
+        if (reference == null) {
+            return null;
+        }
+        if (reference instanceof LazyLoadingProxy proxy) {
+            return referenceId(proxy.toDBRef());
+        }
+        return idGetter.apply(reference);
+    }
+
+    public static String referenceId(DBRef dbRef) {
+        return dbRef != null && dbRef.getId() != null ? String.valueOf(dbRef.getId()) : null;
+    }
+}
@@ -1,13 +1,21 @@
 package com.elibrary.repository;
 
 import com.elibrary.entity.User;
+import com.elibrary.repository.projection.UserRef;
+import com.elibrary.repository.projection.UserSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
 
     List<User> findByNameContainingIgnoreCase(String name);
@@ -15,4 +23,16 @@ public interface UserRepository extends MongoRepository<User, String> {
     List<User> findByActiveTrue();
 
     boolean existsByEmail(String email);
+
+    // Projection return types make Spring Data select only the projection's fields
+
+    List<UserSummary> findSummariesBy();
+
+    Window<UserSummary> findSummariesBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Stream<UserSummary> streamSummariesBy();
+
+    List<UserSummary> findSummariesByNameContainingIgnoreCase(String name);
+
+    List<UserRef> findRefsByIdIn(Collection<String> ids);
 }
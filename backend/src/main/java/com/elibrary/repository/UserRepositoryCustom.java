@@ -0,0 +1,23 @@
+package com.elibrary.repository;
+
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+
+    // Counts one more unreturned loan if the user is active and below the limit
+    boolean reserveLoanSlot(String userId, int maxLoans);
+
+    void releaseLoanSlot(String userId);
+
+    // Counts up to count more unreturned loans for an active user, stopping at the limit; returns how many
+    int reserveLoanSlots(String userId, int maxLoans, int count);
+
+    // Releases the given number of slots per user in one unordered bulk write, never going below zero
+    void releaseLoanSlots(Map<String, Integer> countsByUserId);
+
+    // Seeds the counter for users created before it existed; no-op once it is set
+    void initializeActiveLoans(String userId, long activeLoans);
+
+    // Swaps the stored password only if it is still the one that was verified
+    boolean replacePassword(String userId, String expectedPassword, String newPassword);
+}
@@ -0,0 +1,86 @@
+package com.elibrary.repository;
+
+import com.elibrary.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AccumulatorOperators;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean reserveLoanSlot(String userId, int maxLoans) {
+        Query query = Query.query(Criteria.where("id").is(userId)
+                .and("active").is(true)
+                .and("activeLoans").lt(maxLoans));
+        Update update = new Update().inc("activeLoans", 1).inc("version", 1);
+        return mongoTemplate.updateFirst(query, update, User.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public void releaseLoanSlot(String userId) {
+        Query query = Query.query(Criteria.where("id").is(userId).and("activeLoans").gt(0));
+        Update update = new Update().inc("activeLoans", -1).inc("version", 1);
+        mongoTemplate.updateFirst(query, update, User.class);
+    }
+
+    @Override
+    public int reserveLoanSlots(String userId, int maxLoans, int count) {
+        Query query = Query.query(Criteria.where("id").is(userId)
+                .and("active").is(true)
+                .and("activeLoans").lt(maxLoans));
+        SetOperation set = SetOperation.set("activeLoans")
+                .toValueOf(AccumulatorOperators.Min.minOf(ArithmeticOperators.Add.valueOf("activeLoans")
+                        .add(count)).and(LiteralOperators.Literal.asLiteral(maxLoans)))
+                .and().set("version").toValueOf(nextVersion());
+        User before = mongoTemplate.findAndModify(query, AggregationUpdate.update().set(set),
+                FindAndModifyOptions.options().returnNew(false), User.class);
+        return before == null ? 0 : Math.min(count, maxLoans - before.getActiveLoans());
+    }
+
+    @Override
+    public void releaseLoanSlots(Map<String, Integer> countsByUserId) {
+        if (countsByUserId.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        countsByUserId.forEach((userId, count) -> bulk.updateOne(
+                Query.query(Criteria.where("id").is(userId).and("activeLoans").gt(0)),
+                AggregationUpdate.update().set(SetOperation.set("activeLoans")
+                        .toValueOf(AccumulatorOperators.Max.maxOf(ArithmeticOperators.Subtract.valueOf("activeLoans")
+                                .subtract(count)).and(LiteralOperators.Literal.asLiteral(0)))
+                        .and().set("version").toValueOf(nextVersion()))));
+        bulk.execute();
+    }
+
+    @Override
+    public void initializeActiveLoans(String userId, long activeLoans) {
+        Query query = Query.query(Criteria.where("id").is(userId).and("activeLoans").exists(false));
+        Update update = new Update().set("activeLoans", (int) activeLoans).inc("version", 1);
+        mongoTemplate.updateFirst(query, update, User.class);
+    }
+
+    @Override
+    public boolean replacePassword(String userId, String expectedPassword, String newPassword) {
+        Query query = Query.query(Criteria.where("id").is(userId).and("password").is(expectedPassword));
+        Update update = new Update().set("password", newPassword).inc("version", 1);
+        return mongoTemplate.updateFirst(query, update, User.class).getModifiedCount() == 1;
+    }
+
+    private static ArithmeticOperators.Add nextVersion() {
+        return ArithmeticOperators.Add.valueOf(ConditionalOperators.ifNull("version").then(0L)).add(1);
+    }
+}
@@ -0,0 +1,23 @@
+package com.elibrary.repository.projection;
+
+import com.mongodb.DBRef;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+/**
+ * The fields the availability index is built from.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookAvailability {
+
+    @Id
+    private String id;
+
+    private Integer availableCopies;
+
+    private DBRef category;
+
+    private Long version;
+}
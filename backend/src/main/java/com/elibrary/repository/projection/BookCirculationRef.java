@@ -0,0 +1,21 @@
+package com.elibrary.repository.projection;
+
+import com.mongodb.DBRef;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+/**
+ * The book fields circulation rollups are labelled with.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCirculationRef {
+
+    @Id
+    private String id;
+
+    private String title;
+
+    private DBRef category;
+}
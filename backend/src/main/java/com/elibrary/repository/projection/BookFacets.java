@@ -0,0 +1,33 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of matching books together with the facet counts, as returned by a single
+ * {@code $facet} aggregation. Each facet counts the books matching every filter but its own.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookFacets {
+
+    @Builder.Default
+    private List<BookSummary> results = new ArrayList<>();
+
+    private long total;
+
+    @Builder.Default
+    private List<FacetCount> categories = new ArrayList<>();
+
+    @Builder.Default
+    private List<FacetCount> authors = new ArrayList<>();
+
+    @Builder.Default
+    private List<FacetCount> decades = new ArrayList<>();
+
+    @Builder.Default
+    private List<FacetCount> availability = new ArrayList<>();
+}
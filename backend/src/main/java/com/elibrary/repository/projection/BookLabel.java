@@ -0,0 +1,17 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookLabel {
+
+    @Id
+    private String id;
+
+    private String title;
+
+    private String author;
+}
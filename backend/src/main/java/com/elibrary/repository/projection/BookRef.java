@@ -0,0 +1,20 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+/**
+ * The book fields a loan shows or snapshots, for resolving loan references in bulk.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookRef {
+
+    @Id
+    private String id;
+
+    private String title;
+
+    private String isbn;
+}
@@ -0,0 +1,24 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+/**
+ * The fields the search index is built from.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchText {
+
+    @Id
+    private String id;
+
+    private String title;
+
+    private String author;
+
+    private String description;
+
+    private String isbn;
+}
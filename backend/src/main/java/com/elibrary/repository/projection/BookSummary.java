@@ -0,0 +1,35 @@
+package com.elibrary.repository.projection;
+
+import com.mongodb.DBRef;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Book listing row without the description. The category stays the raw reference, so listings
+ * resolve category names in one query instead of loading every category document per book.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSummary {
+
+    @Id
+    private String id;
+
+    private String title;
+
+    private String author;
+
+    private String isbn;
+
+    private Integer publishedYear;
+
+    private Boolean available;
+
+    private Integer totalCopies;
+
+    private Integer availableCopies;
+
+    private DBRef category;
+}
@@ -0,0 +1,39 @@
+package com.elibrary.repository.projection;
+
+import com.mongodb.DBRef;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Read-only view of a book for the reactive catalog. Reactive repositories cannot resolve
+ * {@code @DBRef}, so the category is kept as the raw reference and resolved by the caller.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "books")
+public class CatalogBook {
+
+    @Id
+    private String id;
+
+    private String title;
+
+    private String author;
+
+    private String isbn;
+
+    private String description;
+
+    private Integer publishedYear;
+
+    private Boolean available;
+
+    private Integer totalCopies;
+
+    private Integer availableCopies;
+
+    private DBRef category;
+}
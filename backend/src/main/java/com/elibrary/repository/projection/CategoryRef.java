@@ -0,0 +1,15 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRef {
+
+    @Id
+    private String id;
+
+    private String name;
+}
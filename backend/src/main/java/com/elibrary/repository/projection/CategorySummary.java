@@ -0,0 +1,23 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Category listing row with the number of books filed under it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorySummary {
+
+    @Id
+    private String id;
+
+    private String name;
+
+    private String description;
+
+    private long bookCount;
+}
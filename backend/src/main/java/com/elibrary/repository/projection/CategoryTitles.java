@@ -0,0 +1,21 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The books of one category ranked by checkouts, as summed from circulation rollups.
+ * A null categoryId groups the books without a category.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTitles {
+
+    @Id
+    private String categoryId;
+
+    private List<TitleCirculation> titles = new ArrayList<>();
+}
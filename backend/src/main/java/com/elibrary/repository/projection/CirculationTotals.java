@@ -0,0 +1,18 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CirculationTotals {
+
+    private LocalDate day;
+
+    private long checkouts;
+
+    private long returns;
+
+    private long overdue;
+}
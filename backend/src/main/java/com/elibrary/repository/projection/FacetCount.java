@@ -0,0 +1,13 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCount {
+
+    private String value;
+
+    private long count;
+}
@@ -0,0 +1,38 @@
+package com.elibrary.repository.projection;
+
+import com.elibrary.entity.Loan;
+import com.mongodb.DBRef;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+import java.time.LocalDate;
+
+/**
+ * The dates and status of a loan that circulation rollups are rebuilt from, with the book
+ * reference kept raw so reading the whole loan history resolves no books.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanHistory {
+
+    @Id
+    private String id;
+
+    private DBRef book;
+
+    @Field("loan_date")
+    private LocalDate loanDate;
+
+    @Field("due_date")
+    private LocalDate dueDate;
+
+    @Field("return_date")
+    private LocalDate returnDate;
+
+    private Loan.LoanStatus status;
+
+    @Field("overdue_since")
+    private LocalDate overdueSince;
+}
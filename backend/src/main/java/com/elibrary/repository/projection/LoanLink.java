@@ -0,0 +1,22 @@
+package com.elibrary.repository.projection;
+
+import com.mongodb.DBRef;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Who borrowed what, with both references kept raw so reading the whole loan history
+ * resolves no books or users.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanLink {
+
+    @Id
+    private String id;
+
+    private DBRef book;
+
+    private DBRef user;
+}
@@ -0,0 +1,19 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TitleCirculation {
+
+    private String bookId;
+
+    private String bookTitle;
+
+    private long checkouts;
+
+    private long returns;
+
+    private long overdue;
+}
@@ -0,0 +1,18 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+/**
+ * The user fields a loan shows or snapshots, for resolving loan references in bulk.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRef {
+
+    @Id
+    private String id;
+
+    private String name;
+}
@@ -0,0 +1,32 @@
+package com.elibrary.repository.projection;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+import java.time.LocalDate;
+
+/**
+ * User listing row. Leaves out the password hash, loan counter and audit fields.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSummary {
+
+    @Id
+    private String id;
+
+    private String name;
+
+    private String email;
+
+    private String phone;
+
+    private String address;
+
+    @Field("membership_date")
+    private LocalDate membershipDate;
+
+    private Boolean active;
+}
@@ -0,0 +1,29 @@
+package com.elibrary.repository.reactive;
+
+import com.elibrary.repository.projection.CatalogBook;
+import com.elibrary.repository.projection.CategoryBookCount;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveBookRepository extends ReactiveMongoRepository<CatalogBook, String> {
+
+    // categoryId must be in stored form, see MongoIds.toStored
+    @Query("{ 'category.$id': ?0 }")
+    Flux<CatalogBook> findByCategoryId(Object categoryId);
+
+    @Query("{ 'availableCopies': { $gt: 0 } }")
+    Flux<CatalogBook> findAvailableBooks();
+
+    @Query("{ '$or': [ { 'title': { '$regex': ?0, '$options': 'i' } }, { 'author': { '$regex': ?0, '$options': 'i' } } ] }")
+    Flux<CatalogBook> searchBooks(String keyword);
+
+    @Aggregation(pipeline = {
+            "{ '$match': { 'category': { '$ne': null } } }",
+            "{ '$group': { '_id': { '$getField': { 'field': { '$literal': '$id' }, 'input': '$category' } }, 'count': { '$sum': 1 } } }"
+    })
+    Flux<CategoryBookCount> countBooksGroupedByCategory();
+}
@@ -0,0 +1,9 @@
+package com.elibrary.repository.reactive;
+
+import com.elibrary.entity.Category;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveCategoryRepository extends ReactiveMongoRepository<Category, String> {
+}
@@ -0,0 +1,427 @@
+package com.elibrary.service;
+
+import com.elibrary.entity.Book;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.projection.BookLabel;
+import com.elibrary.repository.projection.BookLoanCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Prefix trie over book titles and authors for search-as-you-type. Every word start of a title or
+ * author is a key, so "gat" completes "The Great Gatsby". Each node caches its most borrowed
+ * suggestions, which keeps lookups independent of catalog size; typos are matched by walking the trie
+ * with an edit-distance row per node and pruning branches that exceed the allowed edits.
+ * Loan counts are reloaded with every rebuild, which also runs periodically.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookAutocompleteIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Catalog catalog = new Catalog(Map.of());
+    // Changes seen while a rebuild is in flight, replayed on top of the rebuilt trie
+    private Map<String, BookLabel> pendingChanges;
+
+    private volatile boolean ready;
+
+    public enum Field {
+        TITLE, AUTHOR
+    }
+
+    // loans is the number of loans of all books behind the suggestion
+    public record Suggestion(String text, Field field, List<String> bookIds, long loans) {
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Book autocomplete index warm-up failed, suggestions stay empty: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${elibrary.autocomplete.refresh-interval:PT1H}",
+            initialDelayString = "${elibrary.autocomplete.refresh-interval:PT1H}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Catalog rebuilt;
+        try (Stream<BookLabel> books = bookRepository.streamLabelsBy()) {
+            Map<String, Long> loans = new HashMap<>();
+            for (BookLoanCount count : loanRepository.countAllGroupedByBook()) {
+                loans.put(count.getBookId(), count.getCount());
+            }
+            rebuilt = new Catalog(loans);
+            books.forEach(book -> rebuilt.add(book, false));
+            rebuilt.root.refreshTree();
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach((id, book) -> rebuilt.put(id, book));
+            catalog = rebuilt;
+            pendingChanges = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Book autocomplete index built with {} books and {} suggestions", rebuilt.books.size(),
+                rebuilt.entries.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Book book) {
+        apply(book.getId(), new BookLabel(book.getId(), book.getTitle(), book.getAuthor()));
+    }
+
+    public void remove(String bookId) {
+        apply(bookId, null);
+    }
+
+    /**
+     * Returns up to limit suggestions for what has been typed so far: those completing it with the
+     * fewest edits first, then the most borrowed.
+     */
+    public List<Suggestion> suggest(String typed, int limit) {
+        String query = normalize(typed);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Entry, Integer> distances = new HashMap<>();
+            int[] row = new int[query.length() + 1];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = i;
+            }
+            catalog.root.match(query, maxEdits(query), (char) 0, null, row, distances);
+            return distances.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Entry, Integer>>comparingInt(Map.Entry::getValue)
+                            .thenComparing(Map.Entry::getKey, Entry.BY_POPULARITY))
+                    .limit(Math.min(limit, MAX_SUGGESTIONS))
+                    .map(match -> match.getKey().toSuggestion())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(String bookId, BookLabel book) {
+        if (bookId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            catalog.put(bookId, book);
+            if (pendingChanges != null) {
+                pendingChanges.put(bookId, book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Short prefixes have too many neighbours to allow typos, longer ones get up to two edits
+    static int maxEdits(String query) {
+        return query.length() < 3 ? 0 : query.length() < 6 ? 1 : 2;
+    }
+
+    // Lower case, accents stripped, and any run of other characters turned into one space
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static final class Catalog {
+
+        private final Node root = new Node();
+        private final Map<String, Long> loans;
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final Map<String, List<Entry>> books = new HashMap<>();
+
+        Catalog(Map<String, Long> loans) {
+            this.loans = new HashMap<>(loans);
+        }
+
+        void put(String bookId, BookLabel book) {
+            List<Entry> previous = books.remove(bookId);
+            if (previous != null) {
+                long bookLoans = loans.getOrDefault(bookId, 0L);
+                for (Entry entry : previous) {
+                    entry.bookIds.remove(bookId);
+                    entry.loans -= bookLoans;
+                    if (entry.bookIds.isEmpty()) {
+                        entries.remove(entry.id);
+                        entry.keys().forEach(key -> root.remove(key, entry));
+                    } else {
+                        entry.keys().forEach(root::refreshPath);
+                    }
+                }
+            }
+            if (book != null) {
+                add(book, true);
+            }
+        }
+
+        void add(BookLabel book, boolean refresh) {
+            List<Entry> bookEntries = new ArrayList<>(2);
+            addTo(bookEntries, book, book.getTitle(), Field.TITLE, refresh);
+            addTo(bookEntries, book, book.getAuthor(), Field.AUTHOR, refresh);
+            if (!bookEntries.isEmpty()) {
+                books.put(book.getId(), bookEntries);
+            }
+        }
+
+        private void addTo(List<Entry> bookEntries, BookLabel book, String text, Field field, boolean refresh) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            Entry entry = entries.computeIfAbsent(field + ":" + normalized, id -> {
+                Entry created = new Entry(id, text.trim(), normalized, field);
+                created.keys().forEach(key -> root.insert(key, created));
+                return created;
+            });
+            entry.bookIds.add(book.getId());
+            entry.loans += loans.getOrDefault(book.getId(), 0L);
+            bookEntries.add(entry);
+            if (refresh) {
+                entry.keys().forEach(root::refreshPath);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        static final Comparator<Entry> BY_POPULARITY = Comparator.<Entry>comparingLong(entry -> entry.loans)
+                .reversed()
+                .thenComparing(entry -> entry.normalized)
+                .thenComparing(entry -> entry.field);
+
+        private final String id;
+        private final String text;
+        private final String normalized;
+        private final Field field;
+        private final Set<String> bookIds = new LinkedHashSet<>();
+        private long loans;
+
+        Entry(String id, String text, String normalized, Field field) {
+            this.id = id;
+            this.text = text;
+            this.normalized = normalized;
+            this.field = field;
+        }
+
+        // The text from each word start on
+        List<String> keys() {
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < normalized.length(); i++) {
+                if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                    keys.add(normalized.substring(i));
+                }
+            }
+            return keys;
+        }
+
+        Suggestion toSuggestion() {
+            return new Suggestion(text, field, List.copyOf(bookIds), loans);
+        }
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Children sorted by label, kept in arrays since most nodes have one child or none
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private List<Entry> terminal = List.of();
+        // Most borrowed entries of this subtree; a chain node shares its child's list
+        private List<Entry> top = List.of();
+
+        void insert(String key, Entry entry) {
+            Node node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+            }
+            List<Entry> entries = new ArrayList<>(node.terminal);
+            entries.add(entry);
+            node.terminal = entries;
+        }
+
+        void remove(String key, Entry entry) {
+            Node[] path = path(key);
+            Node last = path[key.length()];
+            if (last != null) {
+                List<Entry> entries = new ArrayList<>(last.terminal);
+                entries.remove(entry);
+                last.terminal = entries.isEmpty() ? List.of() : entries;
+            }
+            refresh(path, key);
+        }
+
+        void refreshPath(String key) {
+            refresh(path(key), key);
+        }
+
+        // Recomputes the caches bottom-up along the path and drops nodes left empty
+        private void refresh(Node[] path, String key) {
+            for (int i = key.length(); i >= 0; i--) {
+                Node node = path[i];
+                if (node == null) {
+                    continue;
+                }
+                if (i > 0 && node.terminal.isEmpty() && node.labels.length == 0) {
+                    path[i - 1].removeChild(key.charAt(i - 1));
+                    continue;
+                }
+                node.computeTop();
+            }
+        }
+
+        void refreshTree() {
+            for (Node child : children) {
+                child.refreshTree();
+            }
+            computeTop();
+        }
+
+        private Node[] path(String key) {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = this;
+            for (int i = 0; i < key.length() && path[i] != null; i++) {
+                path[i + 1] = path[i].child(key.charAt(i));
+            }
+            return path;
+        }
+
+        private void computeTop() {
+            if (terminal.isEmpty() && children.length == 1) {
+                top = children[0].top;
+                return;
+            }
+            Set<Entry> candidates = new LinkedHashSet<>(terminal);
+            for (Node child : children) {
+                candidates.addAll(child.top);
+            }
+            top = candidates.stream().sorted(Entry.BY_POPULARITY).limit(MAX_SUGGESTIONS).toList();
+        }
+
+        /**
+         * Walks the children with one row of the optimal string alignment distance per node: row[i] is the
+         * distance between the first i query characters and the path to this node. A node within maxEdits
+         * of the whole query contributes its cached entries; branches whose row minimum exceeds maxEdits
+         * are pruned.
+         */
+        void match(String query, int maxEdits, char label, int[] parentRow, int[] row,
+                   Map<Entry, Integer> distances) {
+            for (int c = 0; c < labels.length; c++) {
+                char next = labels[c];
+                int[] childRow = new int[row.length];
+                childRow[0] = row[0] + 1;
+                int min = childRow[0];
+                for (int i = 1; i < row.length; i++) {
+                    char expected = query.charAt(i - 1);
+                    int cost = expected == next ? 0 : 1;
+                    int distance = Math.min(Math.min(childRow[i - 1] + 1, row[i] + 1), row[i - 1] + cost);
+                    // Two swapped neighbours count as one edit
+                    if (parentRow != null && i > 1 && expected == label && query.charAt(i - 2) == next) {
+                        distance = Math.min(distance, parentRow[i - 2] + 1);
+                    }
+                    childRow[i] = distance;
+                    min = Math.min(min, distance);
+                }
+                if (min > maxEdits) {
+                    continue;
+                }
+                Node child = children[c];
+                int distance = childRow[row.length - 1];
+                if (distance <= maxEdits) {
+                    child.top.forEach(entry -> distances.merge(entry, distance, Math::min));
+                }
+                child.match(query, maxEdits, next, row, childRow, distances);
+            }
+        }
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node created = new Node();
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = created;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return created;
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+}
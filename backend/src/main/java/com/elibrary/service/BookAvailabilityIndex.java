@@ -0,0 +1,319 @@
+package com.elibrary.service;
+
+import com.elibrary.entity.Book;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.MongoIds;
+import com.elibrary.repository.projection.BookAvailability;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Compressed bitmaps of the books with a copy on the shelf and of the books in each category,
+ * keyed by a dense ordinal per book, so availability and category filters intersect in memory.
+ * Kept current by the inventory updates in BookService, BookImportService and LoanService, and
+ * verified against Mongo by {@link #reconcile()}. Each book remembers the document version its
+ * state came from and ignores updates older than that, so concurrent checkouts and returns can
+ * land in any order.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookAvailabilityIndex {
+
+    private final BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Bitmaps bitmaps = new Bitmaps();
+    // Changes seen while a rebuild is in flight, replayed on top of the rebuilt bitmaps
+    private List<Consumer<Bitmaps>> pendingChanges;
+    private Set<String> pendingBookIds;
+
+    private volatile boolean ready;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Book availability index warm-up failed, availability filters fall back to queries: {}",
+                    ex.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the bitmaps from Mongo and returns how many books the previous bitmaps had wrong,
+     * not counting books changed while the rebuild ran. Rebuilds run one at a time.
+     */
+    public synchronized int rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+            pendingBookIds = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Bitmaps rebuilt = new Bitmaps();
+        // Ordinals follow the ids, so bitmap order is id order; books added later are appended until the next rebuild
+        try (Stream<BookAvailability> books = bookRepository.streamAvailabilityByOrderByIdAsc()) {
+            books.forEach(book -> put(rebuilt, book));
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+                pendingBookIds = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+        rebuilt.optimize();
+
+        int mismatches;
+        lock.writeLock().lock();
+        try {
+            mismatches = ready ? bitmaps.countDifferences(rebuilt, pendingBookIds) : 0;
+            // Changes older than the rebuilt state are ignored by their version
+            pendingChanges.forEach(change -> change.accept(rebuilt));
+            bitmaps = rebuilt;
+            pendingChanges = null;
+            pendingBookIds = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Book availability index built with {} books, {} available", rebuilt.ordinals.size(),
+                rebuilt.available.getCardinality());
+        return mismatches;
+    }
+
+    @Scheduled(fixedDelayString = "${elibrary.availability.reconcile-interval:PT15M}",
+            initialDelayString = "${elibrary.availability.reconcile-interval:PT15M}")
+    public void reconcile() {
+        long flags = bookRepository.syncAvailableFlags();
+        if (flags > 0) {
+            log.warn("Corrected {} book 'available' flags that disagreed with availableCopies", flags);
+        }
+        int mismatches = rebuild();
+        if (mismatches > 0) {
+            log.warn("Book availability index had drifted from Mongo on {} books and was rebuilt", mismatches);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Book book) {
+        String categoryId = book.getCategory() != null ? book.getCategory().getId() : null;
+        boolean available = book.getAvailableCopies() != null && book.getAvailableCopies() > 0;
+        apply(book.getId(), bitmaps -> bitmaps.put(book.getId(), categoryId, available, book.getVersion()));
+    }
+
+    // For updates that only know the new availability; books not indexed yet wait for the next rebuild
+    public void setAvailable(String bookId, boolean available, Long version) {
+        apply(bookId, bitmaps -> bitmaps.setAvailable(bookId, available, version));
+    }
+
+    // Re-reads books whose update did not return the new document, such as bulk copy releases
+    public void refresh(Collection<String> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        bookRepository.findAvailabilityByIdIn(bookIds)
+                .forEach(book -> apply(book.getId(), bitmaps -> put(bitmaps, book)));
+    }
+
+    public void remove(String bookId) {
+        apply(bookId, bitmaps -> bitmaps.remove(bookId));
+    }
+
+    public long countAvailable(String categoryId) {
+        lock.readLock().lock();
+        try {
+            if (categoryId == null) {
+                return bitmaps.available.getLongCardinality();
+            }
+            RoaringBitmap category = bitmaps.byCategory.get(categoryId);
+            return category == null ? 0 : RoaringBitmap.andCardinality(bitmaps.available, category);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One page of the available books, optionally only those in the given category, in id order.
+     */
+    public List<String> availableIds(String categoryId, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            if (categoryId == null) {
+                return bitmaps.idsOf(bitmaps.available, offset, limit);
+            }
+            RoaringBitmap category = bitmaps.byCategory.get(categoryId);
+            return category == null ? List.of()
+                    : bitmaps.idsOf(RoaringBitmap.and(bitmaps.available, category), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(String bookId, Consumer<Bitmaps> change) {
+        if (bookId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            change.accept(bitmaps);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+                pendingBookIds.add(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void put(Bitmaps bitmaps, BookAvailability book) {
+        bitmaps.put(book.getId(), MongoIds.referenceId(book.getCategory()),
+                book.getAvailableCopies() != null && book.getAvailableCopies() > 0, book.getVersion());
+    }
+
+    private record BookState(boolean available, String categoryId) {
+    }
+
+    private static class Bitmaps {
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        // Indexed by ordinal; removed books leave a null until the next rebuild renumbers
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> categories = new ArrayList<>();
+        // Document version each book's state came from, -1 when unknown
+        private final LongArrayList versions = new LongArrayList();
+        private final RoaringBitmap available = new RoaringBitmap();
+        private final Map<String, RoaringBitmap> byCategory = new HashMap<>();
+
+        void put(String bookId, String categoryId, boolean inStock, Long version) {
+            Integer ordinal = ordinals.get(bookId);
+            if (ordinal == null) {
+                ordinal = ids.size();
+                ordinals.put(bookId, ordinal);
+                ids.add(bookId);
+                categories.add(null);
+                versions.add(-1);
+            }
+            if (!advance(ordinal, version)) {
+                return;
+            }
+            String previousCategoryId = categories.get(ordinal);
+            if (!Objects.equals(previousCategoryId, categoryId)) {
+                removeFromCategory(previousCategoryId, ordinal);
+                if (categoryId != null) {
+                    byCategory.computeIfAbsent(categoryId, id -> new RoaringBitmap()).add(ordinal);
+                }
+                categories.set(ordinal, categoryId);
+            }
+            setAvailable(ordinal, inStock);
+        }
+
+        void setAvailable(String bookId, boolean inStock, Long version) {
+            Integer ordinal = ordinals.get(bookId);
+            if (ordinal != null && advance(ordinal, version)) {
+                setAvailable(ordinal, inStock);
+            }
+        }
+
+        void remove(String bookId) {
+            Integer ordinal = ordinals.remove(bookId);
+            if (ordinal == null) {
+                return;
+            }
+            available.remove(ordinal);
+            removeFromCategory(categories.get(ordinal), ordinal);
+            ids.set(ordinal, null);
+            categories.set(ordinal, null);
+        }
+
+        List<String> idsOf(RoaringBitmap bitmap, long offset, int limit) {
+            List<String> result = new ArrayList<>(limit);
+            if (offset >= bitmap.getLongCardinality()) {
+                return result;
+            }
+            PeekableIntIterator ordinals = bitmap.getIntIterator();
+            ordinals.advanceIfNeeded(bitmap.select((int) offset));
+            while (ordinals.hasNext() && result.size() < limit) {
+                result.add(ids.get(ordinals.next()));
+            }
+            return result;
+        }
+
+        // Books whose availability or category differ between the two bitmaps, ignoring the given ids
+        int countDifferences(Bitmaps other, Set<String> ignored) {
+            Set<String> bookIds = new HashSet<>(ordinals.keySet());
+            bookIds.addAll(other.ordinals.keySet());
+            bookIds.removeAll(ignored);
+            int differences = 0;
+            for (String bookId : bookIds) {
+                if (!Objects.equals(state(bookId), other.state(bookId))) {
+                    differences++;
+                }
+            }
+            return differences;
+        }
+
+        void optimize() {
+            available.runOptimize();
+            byCategory.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        private BookState state(String bookId) {
+            Integer ordinal = ordinals.get(bookId);
+            return ordinal == null ? null : new BookState(available.contains(ordinal), categories.get(ordinal));
+        }
+
+        // False when the change comes from an older document than the one already applied
+        private boolean advance(int ordinal, Long version) {
+            if (version == null) {
+                return true;
+            }
+            if (version < versions.getLong(ordinal)) {
+                return false;
+            }
+            versions.set(ordinal, (long) version);
+            return true;
+        }
+
+        private void setAvailable(int ordinal, boolean inStock) {
+            if (inStock) {
+                available.add(ordinal);
+            } else {
+                available.remove(ordinal);
+            }
+        }
+
+        private void removeFromCategory(String categoryId, int ordinal) {
+            RoaringBitmap category = categoryId != null ? byCategory.get(categoryId) : null;
+            if (category != null) {
+                category.remove(ordinal);
+                if (category.isEmpty()) {
+                    byCategory.remove(categoryId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.elibrary.service;
+
+public enum BookImportFormat {
+    // A header row naming BookDTO fields, then one book per record
+    CSV,
+    // One BookDTO JSON object per line
+    NDJSON
+}
@@ -0,0 +1,315 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.BookDTO;
+import com.elibrary.dto.BookImportErrorDTO;
+import com.elibrary.dto.BookImportReportDTO;
+import com.elibrary.entity.Book;
+import com.elibrary.entity.Category;
+import com.elibrary.exception.BusinessException;
+import com.elibrary.exception.BusinessException.Reason;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.BookRepositoryCustom;
+import com.elibrary.repository.CategoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.beans.PropertyDescriptor;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads books in bulk from CSV or NDJSON. Rows are validated and de-duplicated as they
+ * are read, then written in unordered batches so one bad row never blocks the rest.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final Set<String> CSV_COLUMNS = Arrays.stream(BeanUtils.getPropertyDescriptors(BookDTO.class))
+            .map(PropertyDescriptor::getName)
+            .filter(name -> !name.equals("class"))
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final BookRepository bookRepository;
+    private final CategoryRepository categoryRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookAvailabilityIndex availabilityIndex;
+    private final BookAutocompleteIndex autocompleteIndex;
+    private final CatalogCache catalogCache;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${elibrary.books.import-batch-size:1000}")
+    private int batchSize = 1000;
+
+    public BookImportReportDTO importBooks(InputStream input, BookImportFormat format) {
+        long started = System.nanoTime();
+        ImportRun run = new ImportRun(categoryRepository.findAll());
+        RuntimeException failure = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (format == BookImportFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        } catch (IOException ex) {
+            failure = new BusinessException(Reason.INVALID_REQUEST, "Could not read import: " + ex.getMessage());
+        } catch (RuntimeException ex) {
+            failure = ex;
+        }
+
+        // Rows read before a failure are still written, but a failing write must not hide the original error
+        try {
+            run.flush();
+        } catch (RuntimeException ex) {
+            if (failure == null) {
+                throw ex;
+            }
+            failure.addSuppressed(ex);
+        } finally {
+            run.touchedCategoryIds.forEach(catalogCache::evictCategory);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Imported {} of {} books ({} duplicates, {} failed) in {} ms",
+                run.imported, run.received, run.duplicates, run.failed, elapsedMillis);
+        return BookImportReportDTO.builder()
+                .received(run.received)
+                .imported(run.imported)
+                .duplicates(run.duplicates)
+                .failed(run.failed)
+                .errors(run.errors)
+                .errorsTruncated(run.duplicates + run.failed > run.errors.size())
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(run.received * 1000.0 / elapsedMillis)
+                .build();
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.read();
+        if (header == null) {
+            return;
+        }
+        header.set(0, header.get(0).replace("\uFEFF", ""));
+        for (String column : header) {
+            if (!CSV_COLUMNS.contains(column.trim())) {
+                throw new BusinessException(Reason.INVALID_REQUEST, "Unknown CSV column: " + column);
+            }
+        }
+
+        long row = 0;
+        for (List<String> record = csv.read(); record != null; record = csv.read()) {
+            row++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            run.received++;
+            if (record.size() != header.size()) {
+                run.reject(row, null, "Expected " + header.size() + " columns but found " + record.size());
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                if (!record.get(i).isBlank()) {
+                    values.put(header.get(i).trim(), record.get(i).trim());
+                }
+            }
+            try {
+                run.accept(row, objectMapper.convertValue(values, BookDTO.class));
+            } catch (IllegalArgumentException ex) {
+                run.reject(row, values.get("isbn"), "Invalid value: " + ex.getMessage());
+            }
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long row = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            run.received++;
+            try {
+                run.accept(row, objectMapper.readValue(line, BookDTO.class));
+            } catch (JsonProcessingException ex) {
+                run.reject(row, null, "Malformed JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+
+    private record PendingBook(long row, Book book) {
+    }
+
+    private class ImportRun {
+
+        private final Map<String, Category> categoriesById;
+        private final Map<String, Category> categoriesByName;
+        private final Set<String> seenIsbns = new HashSet<>();
+        private final List<PendingBook> pending = new ArrayList<>();
+        private final Set<String> touchedCategoryIds = new HashSet<>();
+        private final List<BookImportErrorDTO> errors = new ArrayList<>();
+
+        private long received;
+        private long imported;
+        private long duplicates;
+        private long failed;
+
+        ImportRun(List<Category> categories) {
+            categoriesById = categories.stream()
+                    .collect(Collectors.toMap(Category::getId, Function.identity()));
+            categoriesByName = categories.stream()
+                    .collect(Collectors.toMap(category -> category.getName().toLowerCase(Locale.ROOT),
+                            Function.identity(), (first, second) -> first));
+        }
+
+        void accept(long row, BookDTO dto) {
+            String isbn = dto.getIsbn() != null ? dto.getIsbn().trim() : null;
+            if (isbn == null || isbn.isEmpty()) {
+                reject(row, null, "ISBN is required for import");
+                return;
+            }
+
+            Category category = null;
+            if (dto.getCategoryId() != null) {
+                category = categoriesById.get(dto.getCategoryId());
+                if (category == null) {
+                    reject(row, isbn, "Category not found: " + dto.getCategoryId());
+                    return;
+                }
+            } else if (dto.getCategoryName() != null) {
+                category = categoriesByName.get(dto.getCategoryName().toLowerCase(Locale.ROOT));
+                if (category == null) {
+                    reject(row, isbn, "Category not found: " + dto.getCategoryName());
+                    return;
+                }
+            }
+
+            Book book = toEntity(dto, isbn, category);
+            Set<ConstraintViolation<Book>> violations = validator.validate(book);
+            if (!violations.isEmpty()) {
+                reject(row, isbn, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (book.getAvailableCopies() > book.getTotalCopies()) {
+                reject(row, isbn, "availableCopies cannot exceed totalCopies");
+                return;
+            }
+            if (!seenIsbns.add(isbn)) {
+                duplicate(row, isbn, "Duplicate ISBN within import");
+                return;
+            }
+
+            pending.add(new PendingBook(row, book));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Set<String> existing = bookRepository.findIsbnsByIsbnIn(pending.stream()
+                    .map(pendingBook -> pendingBook.book().getIsbn())
+                    .collect(Collectors.toList())).stream()
+                    .map(Book::getIsbn)
+                    .collect(Collectors.toSet());
+
+            List<PendingBook> batch = new ArrayList<>(pending.size());
+            for (PendingBook pendingBook : pending) {
+                if (existing.contains(pendingBook.book().getIsbn())) {
+                    duplicate(pendingBook.row(), pendingBook.book().getIsbn(), "ISBN already exists");
+                } else {
+                    batch.add(pendingBook);
+                }
+            }
+            pending.clear();
+
+            // The unique ISBN index still rejects books created concurrently since the lookup above
+            Map<Integer, String> failures = bookRepository.insertUnordered(batch.stream()
+                    .map(PendingBook::book)
+                    .collect(Collectors.toList()));
+            for (int i = 0; i < batch.size(); i++) {
+                PendingBook pendingBook = batch.get(i);
+                Book book = pendingBook.book();
+                String failure = failures.get(i);
+                if (failure == null) {
+                    imported++;
+                    bookSearchIndex.index(book);
+                    availabilityIndex.index(book);
+                    autocompleteIndex.index(book);
+                    if (book.getCategory() != null) {
+                        touchedCategoryIds.add(book.getCategory().getId());
+                    }
+                } else if (BookRepositoryCustom.DUPLICATE_ISBN.equals(failure)) {
+                    duplicate(pendingBook.row(), book.getIsbn(), "ISBN already exists");
+                } else {
+                    failed++;
+                    addError(pendingBook.row(), book.getIsbn(), failure);
+                }
+            }
+        }
+
+        void reject(long row, String isbn, String message) {
+            failed++;
+            addError(row, isbn, message);
+        }
+
+        private void duplicate(long row, String isbn, String message) {
+            duplicates++;
+            addError(row, isbn, message);
+        }
+
+        private void addError(long row, String isbn, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(BookImportErrorDTO.builder().row(row).isbn(isbn).message(message).build());
+            }
+        }
+    }
+
+    private static Book toEntity(BookDTO dto, String isbn, Category category) {
+        int totalCopies = dto.getTotalCopies() != null ? dto.getTotalCopies() : 1;
+        int availableCopies = dto.getAvailableCopies() != null ? dto.getAvailableCopies() : totalCopies;
+        LocalDateTime now = LocalDateTime.now();
+        // Ids are assigned up front so the search index can be fed from the batch without reading it back
+        return Book.builder()
+                .id(new ObjectId().toHexString())
+                .title(dto.getTitle())
+                .author(dto.getAuthor())
+                .isbn(isbn)
+                .description(dto.getDescription())
+                .publishedYear(dto.getPublishedYear())
+                .totalCopies(totalCopies)
+                .availableCopies(availableCopies)
+                .available(availableCopies > 0)
+                .category(category)
+                .createdAt(now)
+                .updatedAt(now)
+                .version(0L)
+                .build();
+    }
+}
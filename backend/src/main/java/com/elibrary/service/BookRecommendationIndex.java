@@ -0,0 +1,293 @@
+package com.elibrary.service;
+
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.MongoIds;
+import com.elibrary.repository.projection.LoanLink;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Sparse item-item matrix counting, for every pair of books, how many readers borrowed both.
+ * Books and readers are numbered densely so rows are primitive int maps. New loans update the
+ * matrix in place; the full rebuild from the loan history computes rows in parallel on a
+ * fork-join pool. Neighbours are ranked by cosine similarity, so books everyone borrows do not
+ * crowd out the ones that are borrowed together.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookRecommendationIndex {
+
+    public static final int MAX_RECOMMENDATIONS = 20;
+
+    // Books per fork-join task below which rows are computed without splitting further
+    static final int ROWS_PER_TASK = 256;
+
+    private final LoanRepository loanRepository;
+
+    @Value("${elibrary.recommendations.rebuild-parallelism:0}")
+    private int rebuildParallelism = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Matrix matrix = new Matrix();
+    // Loans recorded while a rebuild is in flight, replayed on top of the rebuilt matrix
+    private List<String[]> pendingLoans;
+
+    private volatile boolean ready;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Book recommendation index warm-up failed, recommendations stay empty: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${elibrary.recommendations.rebuild-cron:0 0 4 * * *}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingLoans = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Matrix rebuilt = new Matrix();
+        try (Stream<LoanLink> loans = loanRepository.streamLinksBy()) {
+            loans.forEach(loan -> rebuilt.addBorrower(MongoIds.referenceId(loan.getBook()),
+                    MongoIds.referenceId(loan.getUser())));
+            int parallelism = rebuildParallelism > 0 ? rebuildParallelism : Runtime.getRuntime().availableProcessors();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new RowTask(rebuilt, rebuilt.usersByBook(), 0, rebuilt.bookIds.size()));
+            } finally {
+                pool.shutdown();
+            }
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                pendingLoans = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingLoans.forEach(loan -> rebuilt.record(loan[0], loan[1]));
+            matrix = rebuilt;
+            pendingLoans = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Book recommendation index built from {} readers over {} books", rebuilt.booksByUser.size(),
+                rebuilt.bookIds.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void recordLoan(String bookId, String userId) {
+        if (bookId == null || userId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            matrix.record(bookId, userId);
+            if (pendingLoans != null) {
+                pendingLoans.add(new String[] { bookId, userId });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of up to limit books most often borrowed by the readers of the given book,
+     * most similar first.
+     */
+    public List<String> similarBooks(String bookId, int limit) {
+        lock.readLock().lock();
+        try {
+            int book = matrix.bookOrdinals.getInt(bookId);
+            if (book < 0 || matrix.coBorrows.get(book).isEmpty()) {
+                return List.of();
+            }
+            int borrowers = matrix.borrowers.getInt(book);
+            // Min-heap of the best neighbours so far, weakest on top
+            PriorityQueue<Neighbour> best = new PriorityQueue<>(limit + 1, Neighbour.WEAKEST_FIRST);
+            for (Int2IntMap.Entry cell : matrix.coBorrows.get(book).int2IntEntrySet()) {
+                int other = cell.getIntKey();
+                double score = cell.getIntValue() / Math.sqrt((double) borrowers * matrix.borrowers.getInt(other));
+                best.add(new Neighbour(matrix.bookIds.get(other), score, cell.getIntValue()));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<Neighbour> ranked = new ArrayList<>(best);
+            ranked.sort(Neighbour.WEAKEST_FIRST.reversed());
+            return ranked.stream().map(Neighbour::bookId).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Neighbour(String bookId, double score, int together) {
+
+        static final Comparator<Neighbour> WEAKEST_FIRST = Comparator.comparingDouble(Neighbour::score)
+                .thenComparingInt(Neighbour::together)
+                .thenComparing(Neighbour::bookId, Comparator.reverseOrder());
+    }
+
+    private static final class Matrix {
+
+        private final Object2IntOpenHashMap<String> bookOrdinals = new Object2IntOpenHashMap<>();
+        private final List<String> bookIds = new ArrayList<>();
+        private final Object2IntOpenHashMap<String> userOrdinals = new Object2IntOpenHashMap<>();
+        // Distinct books per reader, by user ordinal
+        private final List<IntOpenHashSet> booksByUser = new ArrayList<>();
+        // Distinct readers per book, by book ordinal
+        private final IntArrayList borrowers = new IntArrayList();
+        // Row per book ordinal: other book ordinal -> readers who borrowed both
+        private final List<Int2IntOpenHashMap> coBorrows = new ArrayList<>();
+
+        Matrix() {
+            bookOrdinals.defaultReturnValue(-1);
+            userOrdinals.defaultReturnValue(-1);
+        }
+
+        // Adds the loan to the matrix; repeat loans of a book by the same reader change nothing
+        void record(String bookId, String userId) {
+            int book = bookOrdinal(bookId);
+            IntOpenHashSet books = addBorrower(book, userId);
+            if (books == null) {
+                return;
+            }
+            Int2IntOpenHashMap row = coBorrows.get(book);
+            IntIterator others = books.iterator();
+            while (others.hasNext()) {
+                int other = others.nextInt();
+                if (other != book) {
+                    row.addTo(other, 1);
+                    coBorrows.get(other).addTo(book, 1);
+                }
+            }
+        }
+
+        // Only the reader and borrower counts; the rows are filled by RowTask
+        void addBorrower(String bookId, String userId) {
+            if (bookId != null && userId != null) {
+                addBorrower(bookOrdinal(bookId), userId);
+            }
+        }
+
+        // Returns the reader's books when the book was new to the reader, otherwise null
+        private IntOpenHashSet addBorrower(int book, String userId) {
+            int user = userOrdinals.getInt(userId);
+            if (user < 0) {
+                user = booksByUser.size();
+                userOrdinals.put(userId, user);
+                booksByUser.add(new IntOpenHashSet());
+            }
+            IntOpenHashSet books = booksByUser.get(user);
+            if (!books.add(book)) {
+                return null;
+            }
+            borrowers.set(book, borrowers.getInt(book) + 1);
+            return books;
+        }
+
+        private int bookOrdinal(String bookId) {
+            int book = bookOrdinals.getInt(bookId);
+            if (book < 0) {
+                book = bookIds.size();
+                bookOrdinals.put(bookId, book);
+                bookIds.add(bookId);
+                borrowers.add(0);
+                coBorrows.add(new Int2IntOpenHashMap());
+            }
+            return book;
+        }
+
+        int[][] usersByBook() {
+            int[][] users = new int[bookIds.size()][];
+            int[] filled = new int[bookIds.size()];
+            for (int book = 0; book < users.length; book++) {
+                users[book] = new int[borrowers.getInt(book)];
+            }
+            for (int user = 0; user < booksByUser.size(); user++) {
+                IntIterator books = booksByUser.get(user).iterator();
+                while (books.hasNext()) {
+                    int book = books.nextInt();
+                    users[book][filled[book]++] = user;
+                }
+            }
+            return users;
+        }
+    }
+
+    // Fills the rows of a range of books, each from the books of that book's readers
+    private static final class RowTask extends RecursiveAction {
+
+        private final Matrix matrix;
+        private final int[][] usersByBook;
+        private final int from;
+        private final int to;
+
+        RowTask(Matrix matrix, int[][] usersByBook, int from, int to) {
+            this.matrix = matrix;
+            this.usersByBook = usersByBook;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(matrix, usersByBook, from, middle), new RowTask(matrix, usersByBook, middle, to));
+                return;
+            }
+            for (int book = from; book < to; book++) {
+                // Each task writes only its own rows and the reader sets are no longer modified
+                Int2IntOpenHashMap row = matrix.coBorrows.get(book);
+                for (int user : usersByBook[book]) {
+                    IntIterator others = matrix.booksByUser.get(user).iterator();
+                    while (others.hasNext()) {
+                        int other = others.nextInt();
+                        if (other != book) {
+                            row.addTo(other, 1);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
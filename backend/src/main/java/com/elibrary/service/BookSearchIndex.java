@@ -0,0 +1,240 @@
+package com.elibrary.service;
+
+import com.elibrary.entity.Book;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.projection.BookSearchText;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Tokenized inverted index over book title, author, ISBN and description.
+ * Query tokens match indexed terms by prefix; a book must match every query
+ * token and is ranked by the summed field weights of its best matches.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+
+    private static final int ISBN_WEIGHT = 8;
+    private static final int TITLE_WEIGHT = 6;
+    private static final int AUTHOR_WEIGHT = 4;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (bookId -> weight)
+    private NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    // bookId -> terms, needed to unindex a book on update and delete
+    private Map<String, Set<String>> termsByBook = new HashMap<>();
+    // Changes seen while a rebuild is in flight, replayed on top of the rebuilt index
+    private Map<String, Book> pendingChanges;
+
+    private volatile boolean ready;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Book search index warm-up failed, searches fall back to regex: {}", ex.getMessage());
+        }
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        NavigableMap<String, Map<String, Integer>> newPostings = new TreeMap<>();
+        Map<String, Set<String>> newTermsByBook = new HashMap<>();
+        // Streams only the indexed fields, without materializing books or resolving their categories
+        try (Stream<BookSearchText> books = bookRepository.streamSearchTextBy()) {
+            books.forEach(book -> add(book.getId(), book.getTitle(), book.getAuthor(), book.getDescription(),
+                    book.getIsbn(), newPostings, newTermsByBook));
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            termsByBook = newTermsByBook;
+            pendingChanges.forEach((id, book) -> {
+                unindex(id);
+                if (book != null) {
+                    add(book, postings, termsByBook);
+                }
+            });
+            pendingChanges = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Book search index built with {} books and {} terms", newTermsByBook.size(), newPostings.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            unindex(book.getId());
+            add(book, postings, termsByBook);
+            if (pendingChanges != null) {
+                pendingChanges.put(book.getId(), book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String bookId) {
+        lock.writeLock().lock();
+        try {
+            unindex(bookId);
+            if (pendingChanges != null) {
+                pendingChanges.put(bookId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the best matching books, best match first, at most {@code limit} of them.
+     */
+    public List<String> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String token : queryTokens) {
+                Map<String, Integer> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Only the top matches are kept, so a one-letter prefix does not sort most of the catalog
+        Comparator<Map.Entry<String, Integer>> byRank = Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(byRank.reversed());
+        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+            top.add(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(top);
+        ranked.sort(byRank);
+        List<String> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<String, Integer> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    private Map<String, Integer> scoreToken(String token) {
+        Map<String, Integer> tokenScores = new HashMap<>();
+        for (Map.Entry<String, Map<String, Integer>> term : postings
+                .subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            // Whole-word hits outrank prefix hits
+            int factor = term.getKey().length() == token.length() ? 2 : 1;
+            term.getValue().forEach((bookId, weight) -> tokenScores.merge(bookId, weight * factor, Math::max));
+        }
+        return tokenScores;
+    }
+
+    private void unindex(String bookId) {
+        Set<String> terms = termsByBook.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<String, Integer> books = postings.get(term);
+            if (books != null) {
+                books.remove(bookId);
+                if (books.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void add(Book book, NavigableMap<String, Map<String, Integer>> postings,
+            Map<String, Set<String>> termsByBook) {
+        add(book.getId(), book.getTitle(), book.getAuthor(), book.getDescription(), book.getIsbn(), postings,
+                termsByBook);
+    }
+
+    private static void add(String bookId, String title, String author, String description, String isbn,
+            NavigableMap<String, Map<String, Integer>> postings, Map<String, Set<String>> termsByBook) {
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, title, TITLE_WEIGHT);
+        addField(weights, author, AUTHOR_WEIGHT);
+        addField(weights, description, DESCRIPTION_WEIGHT);
+        addField(weights, isbn, ISBN_WEIGHT);
+        if (isbn != null) {
+            // Also index the bare digits so "9780743273565" finds "978-0743273565"
+            addField(weights, isbn.replaceAll("[^0-9Xx]", ""), ISBN_WEIGHT);
+        }
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(bookId, weight));
+        termsByBook.put(bookId, new HashSet<>(weights.keySet()));
+    }
+
+    private static void addField(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Math::max);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,57 +1,203 @@
 package com.elibrary.service;
 
+import com.elibrary.dto.CursorPageDTO;
 import com.elibrary.dto.BookDTO;
+import com.elibrary.dto.BookFacetPageDTO;
+import com.elibrary.dto.BookSuggestionDTO;
+import com.elibrary.dto.BookSummaryDTO;
+import com.elibrary.dto.FacetCountDTO;
+import com.elibrary.dto.PageDTO;
 import com.elibrary.entity.Book;
+import com.elibrary.event.BookUpdatedEvent;
 import com.elibrary.entity.Category;
 import com.elibrary.exception.BusinessException;
+import com.elibrary.exception.BusinessException.Reason;
 import com.elibrary.exception.ResourceNotFoundException;
 import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.BookRepositoryCustom.FacetQuery;
 import com.elibrary.repository.CategoryRepository;
+import com.elibrary.repository.MongoIds;
+import com.elibrary.repository.projection.BookFacets;
+import com.elibrary.repository.projection.BookSummary;
+import com.elibrary.repository.projection.CategoryRef;
+import com.elibrary.repository.projection.FacetCount;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class BookService {
 
+    private static final Set<String> PAGE_SORT_KEYS = Set.of("title", "author");
+    private static final Set<String> FACET_SORT_KEYS = Set.of("title", "author", "publishedYear");
+
     private final BookRepository bookRepository;
     private final CategoryRepository categoryRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogCache catalogCache;
+    private final BookAvailabilityIndex availabilityIndex;
+    private final BookAutocompleteIndex autocompleteIndex;
+    private final BookRecommendationIndex recommendationIndex;
 
-    public List<BookDTO> getAllBooks() {
-        return bookRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    @Value("${elibrary.search.mode:index}")
+    private SearchMode searchMode = SearchMode.INDEX;
+
+    @Value("${elibrary.search.max-results:500}")
+    private int maxSearchResults = 500;
+
+    @Value("${elibrary.facets.author-limit:20}")
+    private int authorFacetLimit = 20;
+
+    public List<BookSummaryDTO> getAllBooks() {
+        return toSummaryDTOs(bookRepository.findSummariesBy());
+    }
+
+    public CursorPageDTO<BookSummaryDTO> getBooksPage(String cursor, int size, String sort) {
+        Sort order = CursorPaging.sort(sort, PAGE_SORT_KEYS);
+        Window<BookSummary> window = bookRepository.findSummariesBy(CursorPaging.position(cursor, order), order,
+                CursorPaging.limit(size));
+        return CursorPaging.page(window, order, toSummaryDTOs(window.getContent()));
     }
 
+    // The export keeps full documents so it can be imported again
+    public Stream<BookDTO> streamAllBooks() {
+        return bookRepository.streamAllBy().map(this::toDTO);
+    }
+
+    @Cacheable(cacheNames = CatalogCache.BOOKS, key = "#id")
     public BookDTO getBookById(String id) {
         return toDTO(findBookById(id));
     }
 
-    public List<BookDTO> searchBooks(String keyword) {
-        return bookRepository.searchBooks(keyword).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public List<BookSummaryDTO> searchBooks(String keyword) {
+        if (searchMode == SearchMode.INDEX && bookSearchIndex.isReady()) {
+            return toSummaryDTOs(findSummariesInOrder(bookSearchIndex.search(keyword, maxSearchResults)));
+        }
+        return toSummaryDTOs(bookRepository.searchBookSummaries(keyword));
     }
 
-    public List<BookDTO> getAvailableBooks() {
-        return bookRepository.findAvailableBooks().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    // "Readers who borrowed this also borrowed"; empty until the index has been built or the book was borrowed
+    public List<BookSummaryDTO> getRecommendations(String bookId, int limit) {
+        if (limit < 1 || limit > BookRecommendationIndex.MAX_RECOMMENDATIONS) {
+            throw new BusinessException(Reason.INVALID_REQUEST,
+                    "Limit must be between 1 and " + BookRecommendationIndex.MAX_RECOMMENDATIONS);
+        }
+        return toSummaryDTOs(findSummariesInOrder(recommendationIndex.similarBooks(bookId, limit)));
     }
 
-    public List<BookDTO> getBooksByCategory(String categoryId) {
-        return bookRepository.findByCategory_Id(categoryId).stream()
-                .map(this::toDTO)
+    // Served from memory only; suggestions stay empty until the index has been built
+    public List<BookSuggestionDTO> autocomplete(String prefix, int limit) {
+        if (limit < 1 || limit > BookAutocompleteIndex.MAX_SUGGESTIONS) {
+            throw new BusinessException(Reason.INVALID_REQUEST,
+                    "Limit must be between 1 and " + BookAutocompleteIndex.MAX_SUGGESTIONS);
+        }
+        return autocompleteIndex.suggest(prefix, limit).stream()
+                .map(suggestion -> BookSuggestionDTO.builder()
+                        .text(suggestion.text())
+                        .field(suggestion.field().name().toLowerCase(Locale.ROOT))
+                        .bookId(suggestion.bookIds().size() == 1 ? suggestion.bookIds().get(0) : null)
+                        .bookCount(suggestion.bookIds().size())
+                        .build())
                 .collect(Collectors.toList());
     }
 
+    // One aggregation returns the page and all facet counts; the keyword goes through the search index when it is up
+    public BookFacetPageDTO facetSearch(String keyword, String categoryId, String author, Integer decade,
+                                        Boolean available, int page, int size, String sort) {
+        if (page < 0) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "Page must not be negative");
+        }
+        if (decade != null && decade % 10 != 0) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "Decade must be a multiple of 10: " + decade);
+        }
+        CursorPaging.limit(size);
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        List<String> matchingIds = hasKeyword && searchMode == SearchMode.INDEX && bookSearchIndex.isReady()
+                ? bookSearchIndex.search(keyword, maxSearchResults + 1) : null;
+        // Facet counts need every match, so a keyword matching more books than the cap is filtered in Mongo
+        if (matchingIds != null && matchingIds.size() > maxSearchResults) {
+            matchingIds = null;
+        }
+        BookFacets facets = bookRepository.facetSearch(new FacetQuery(keyword, matchingIds, categoryId, author,
+                decade, available, CursorPaging.sort(sort, FACET_SORT_KEYS), (long) page * size, size,
+                authorFacetLimit));
+
+        Set<String> categoryIds = new HashSet<>();
+        facets.getResults().forEach(book -> categoryIds.add(MongoIds.referenceId(book.getCategory())));
+        facets.getCategories().forEach(count -> categoryIds.add(count.getValue()));
+        categoryIds.remove(null);
+        Map<String, String> categoryNames = categoryNames(categoryIds);
+        return BookFacetPageDTO.builder()
+                .items(facets.getResults().stream()
+                        .map(book -> toSummaryDTO(book, categoryNames))
+                        .collect(Collectors.toList()))
+                .total(facets.getTotal())
+                .page(page)
+                .size(size)
+                .categories(toFacetDTOs(facets.getCategories(),
+                        value -> categoryNames.getOrDefault(value, value)))
+                .authors(toFacetDTOs(facets.getAuthors(), Function.identity()))
+                .decades(toFacetDTOs(facets.getDecades(), value -> value + "s"))
+                .availability(toFacetDTOs(facets.getAvailability(),
+                        value -> Boolean.parseBoolean(value) ? "Available" : "Checked out"))
+                .build();
+    }
+
+    // The page is cut from the bitmaps before the lookup, so the $in never grows with the catalog.
+    // Both paths order by id, so a scroll that spans the index warm-up keeps its order
+    public PageDTO<BookSummaryDTO> getAvailableBooks(String categoryId, int page, int size) {
+        if (page < 0) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "Page must not be negative");
+        }
+        CursorPaging.limit(size);
+        List<BookSummary> books;
+        long total;
+        if (availabilityIndex.isReady()) {
+            books = findSummariesInOrder(availabilityIndex.availableIds(categoryId, (long) page * size, size));
+            total = availabilityIndex.countAvailable(categoryId);
+        } else {
+            PageRequest pageRequest = PageRequest.of(page, size, Sort.by("id"));
+            books = categoryId != null
+                    ? bookRepository.findSummariesByCategory_IdAndAvailableCopiesGreaterThan(categoryId, 0, pageRequest)
+                    : bookRepository.findAvailableBookSummaries(pageRequest);
+            total = categoryId != null
+                    ? bookRepository.countByCategory_IdAndAvailableCopiesGreaterThan(categoryId, 0)
+                    : bookRepository.countByAvailableCopiesGreaterThan(0);
+        }
+        return PageDTO.<BookSummaryDTO>builder()
+                .items(toSummaryDTOs(books))
+                .total(total)
+                .page(page)
+                .size(size)
+                .hasNext((long) (page + 1) * size < total)
+                .build();
+    }
+
+    public List<BookSummaryDTO> getBooksByCategory(String categoryId) {
+        return toSummaryDTOs(bookRepository.findSummariesByCategory_Id(categoryId));
+    }
+
     public BookDTO createBook(BookDTO dto) {
         if (dto.getIsbn() != null && bookRepository.existsByIsbn(dto.getIsbn())) {
-            throw new BusinessException("Book with ISBN " + dto.getIsbn() + " already exists");
+            throw new BusinessException(Reason.DUPLICATE, "Book with ISBN " + dto.getIsbn() + " already exists");
         }
 
         Book book = toEntity(dto);
@@ -61,11 +207,19 @@ public class BookService {
             book.setCategory(category);
         }
 
-        return toDTO(bookRepository.save(book));
+        Book savedBook = bookRepository.save(book);
+        bookSearchIndex.index(savedBook);
+        availabilityIndex.index(savedBook);
+        autocompleteIndex.index(savedBook);
+        if (savedBook.getCategory() != null) {
+            catalogCache.evictCategory(savedBook.getCategory().getId());
+        }
+        return toDTO(savedBook);
     }
 
     public BookDTO updateBook(String id, BookDTO dto) {
         Book book = findBookById(id);
+        String previousCategoryId = book.getCategory() != null ? book.getCategory().getId() : null;
 
         book.setTitle(dto.getTitle());
         book.setAuthor(dto.getAuthor());
@@ -73,6 +227,7 @@ public class BookService {
         book.setPublishedYear(dto.getPublishedYear());
         book.setTotalCopies(dto.getTotalCopies());
         book.setAvailableCopies(dto.getAvailableCopies());
+        book.setAvailable(inStock(dto.getAvailableCopies()));
 
         if (dto.getCategoryId() != null) {
             Category category = categoryRepository.findById(dto.getCategoryId())
@@ -80,12 +235,30 @@ public class BookService {
             book.setCategory(category);
         }
 
-        return toDTO(bookRepository.save(book));
+        Book savedBook = bookRepository.save(book);
+        bookSearchIndex.index(savedBook);
+        availabilityIndex.index(savedBook);
+        autocompleteIndex.index(savedBook);
+        catalogCache.evictBook(id);
+        String categoryId = savedBook.getCategory() != null ? savedBook.getCategory().getId() : null;
+        if (!Objects.equals(previousCategoryId, categoryId)) {
+            catalogCache.evictCategory(previousCategoryId);
+            catalogCache.evictCategory(categoryId);
+        }
+        eventPublisher.publishEvent(new BookUpdatedEvent(savedBook));
+        return toDTO(savedBook);
     }
 
     public void deleteBook(String id) {
         Book book = findBookById(id);
         bookRepository.delete(book);
+        bookSearchIndex.remove(id);
+        availabilityIndex.remove(id);
+        autocompleteIndex.remove(id);
+        catalogCache.evictBook(id);
+        if (book.getCategory() != null) {
+            catalogCache.evictCategory(book.getCategory().getId());
+        }
     }
 
     private Book findBookById(String id) {
@@ -93,6 +266,19 @@ public class BookService {
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
     }
 
+    // Loads the summaries of the given ids in that order, skipping books deleted since the ids were taken
+    private List<BookSummary> findSummariesInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, BookSummary> booksById = bookRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     private BookDTO toDTO(Book book) {
         return BookDTO.builder()
                 .id(book.getId())
@@ -109,7 +295,55 @@ public class BookService {
                 .build();
     }
 
+    // Category names for the whole listing come from one $in query on the referenced ids
+    private List<BookSummaryDTO> toSummaryDTOs(List<BookSummary> books) {
+        if (books.isEmpty()) {
+            return List.of();
+        }
+        Map<String, String> categoryNames = categoryNames(books.stream()
+                .map(book -> MongoIds.referenceId(book.getCategory()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        return books.stream()
+                .map(book -> toSummaryDTO(book, categoryNames))
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, String> categoryNames(Set<String> categoryIds) {
+        return categoryIds.isEmpty() ? Map.of()
+                : categoryRepository.findRefsByIdIn(categoryIds).stream()
+                        .collect(Collectors.toMap(CategoryRef::getId, CategoryRef::getName));
+    }
+
+    private static List<FacetCountDTO> toFacetDTOs(List<FacetCount> counts, Function<String, String> label) {
+        return counts.stream()
+                .map(count -> new FacetCountDTO(count.getValue(), label.apply(count.getValue()), count.getCount()))
+                .collect(Collectors.toList());
+    }
+
+    private BookSummaryDTO toSummaryDTO(BookSummary book, Map<String, String> categoryNames) {
+        String categoryId = MongoIds.referenceId(book.getCategory());
+        return BookSummaryDTO.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .publishedYear(book.getPublishedYear())
+                .available(book.getAvailable())
+                .totalCopies(book.getTotalCopies())
+                .availableCopies(book.getAvailableCopies())
+                .categoryId(categoryId)
+                .categoryName(categoryId != null ? categoryNames.get(categoryId) : null)
+                .build();
+    }
+
+    // 'available' is derived from the copy count so the two cannot disagree
+    private static boolean inStock(Integer availableCopies) {
+        return availableCopies != null && availableCopies > 0;
+    }
+
     private Book toEntity(BookDTO dto) {
+        int availableCopies = dto.getAvailableCopies() != null ? dto.getAvailableCopies() : 1;
         return Book.builder()
                 .title(dto.getTitle())
                 .author(dto.getAuthor())
@@ -117,8 +351,8 @@ public class BookService {
                 .description(dto.getDescription())
                 .publishedYear(dto.getPublishedYear())
                 .totalCopies(dto.getTotalCopies() != null ? dto.getTotalCopies() : 1)
-                .availableCopies(dto.getAvailableCopies() != null ? dto.getAvailableCopies() : 1)
-                .available(true)
+                .availableCopies(availableCopies)
+                .available(inStock(availableCopies))
                 .build();
     }
 }
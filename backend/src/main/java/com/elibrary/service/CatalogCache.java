@@ -0,0 +1,62 @@
+package com.elibrary.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Names of the catalog caches and the targeted evictions writes need.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCache {
+
+    public static final String BOOKS = "books";
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_LIST = "categoryList";
+    public static final String CATEGORY_LIST_KEY = "'all'";
+
+    private final CacheManager cacheManager;
+
+    public void evictBook(String bookId) {
+        evict(BOOKS, bookId);
+    }
+
+    // Book entries carry their category name, so renaming a category drops them all
+    public void evictAllBooks() {
+        Cache cache = cacheManager.getCache(BOOKS);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    // A category entry carries its book count, so book writes evict their category as well
+    public void evictCategory(String categoryId) {
+        evict(CATEGORIES, categoryId);
+        evictCategoryList();
+    }
+
+    // For changes that may have moved books between categories without saying which ones
+    public void evictAllCategories() {
+        Cache cache = cacheManager.getCache(CATEGORIES);
+        if (cache != null) {
+            cache.clear();
+        }
+        evictCategoryList();
+    }
+
+    public void evictCategoryList() {
+        Cache cache = cacheManager.getCache(CATEGORY_LIST);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.elibrary.service;
+
+import com.elibrary.event.ChangeEventSubscriber;
+import com.elibrary.event.CollectionChangeEvent;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evicts cached books changed by other instances or directly in the database; writes through
+ * this instance have already evicted their entries by the time the change arrives.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheInvalidator implements ChangeEventSubscriber {
+
+    private static final Set<OperationType> COUNT_CHANGING = EnumSet.of(OperationType.INSERT,
+            OperationType.UPDATE, OperationType.REPLACE, OperationType.DELETE);
+
+    private final CatalogCache catalogCache;
+
+    @Override
+    public Set<String> collections() {
+        return Set.of("books");
+    }
+
+    @Override
+    public void onChanges(List<CollectionChangeEvent> events) {
+        boolean countsChanged = false;
+        for (CollectionChangeEvent event : events) {
+            catalogCache.evictBook(event.documentId());
+            countsChanged |= COUNT_CHANGING.contains(event.operation());
+        }
+        // Deletes carry no document, and updates only the new one, so the category a book left is unknown
+        // and the cached counts go as a whole, once per batch
+        if (countsChanged) {
+            catalogCache.evictAllCategories();
+        }
+    }
+}
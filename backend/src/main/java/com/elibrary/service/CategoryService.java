@@ -1,58 +1,96 @@
 package com.elibrary.service;
 
+import com.elibrary.dto.CursorPageDTO;
 import com.elibrary.dto.CategoryDTO;
 import com.elibrary.entity.Category;
 import com.elibrary.exception.BusinessException;
+import com.elibrary.exception.BusinessException.Reason;
 import com.elibrary.exception.ResourceNotFoundException;
+import com.elibrary.repository.BookRepository;
 import com.elibrary.repository.CategoryRepository;
+import com.elibrary.repository.projection.CategoryBookCount;
+import com.elibrary.repository.projection.CategorySummary;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class CategoryService {
 
+    private static final Set<String> PAGE_SORT_KEYS = Set.of("name");
+
     private final CategoryRepository categoryRepository;
-    private final com.elibrary.repository.BookRepository bookRepository;
+    private final BookRepository bookRepository;
+    private final CatalogCache catalogCache;
 
+    @Cacheable(cacheNames = CatalogCache.CATEGORY_LIST, key = CatalogCache.CATEGORY_LIST_KEY)
     public List<CategoryDTO> getAllCategories() {
-        return categoryRepository.findAll().stream()
+        return categoryRepository.findAllWithBookCounts().stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
 
+    public CursorPageDTO<CategoryDTO> getCategoriesPage(String cursor, int size, String sort) {
+        Sort order = CursorPaging.sort(sort, PAGE_SORT_KEYS);
+        Window<Category> window = categoryRepository.findAllBy(CursorPaging.position(cursor, order), order,
+                CursorPaging.limit(size));
+        return CursorPaging.page(window, order, toDTOs(window.getContent()));
+    }
+
+    public Stream<CategoryDTO> streamAllCategories() {
+        Map<String, Long> bookCounts = countBooksByCategory();
+        return categoryRepository.streamAllBy()
+                .map(category -> toDTO(category, bookCounts.getOrDefault(category.getId(), 0L)));
+    }
+
+    @Cacheable(cacheNames = CatalogCache.CATEGORIES, key = "#id")
     public CategoryDTO getCategoryById(String id) {
         return toDTO(findCategoryById(id));
     }
 
     public CategoryDTO createCategory(CategoryDTO dto) {
         if (categoryRepository.existsByName(dto.getName())) {
-            throw new BusinessException("Category with name " + dto.getName() + " already exists");
+            throw new BusinessException(Reason.DUPLICATE, "Category with name " + dto.getName() + " already exists");
         }
         Category category = Category.builder()
                 .name(dto.getName())
                 .description(dto.getDescription())
                 .build();
-        return toDTO(categoryRepository.save(category));
+        Category savedCategory = categoryRepository.save(category);
+        catalogCache.evictCategoryList();
+        return toDTO(savedCategory);
     }
 
     public CategoryDTO updateCategory(String id, CategoryDTO dto) {
         Category category = findCategoryById(id);
+        boolean renamed = !category.getName().equals(dto.getName());
         category.setName(dto.getName());
         category.setDescription(dto.getDescription());
-        return toDTO(categoryRepository.save(category));
+        Category savedCategory = categoryRepository.save(category);
+        catalogCache.evictCategory(id);
+        if (renamed) {
+            catalogCache.evictAllBooks();
+        }
+        return toDTO(savedCategory);
     }
 
     public void deleteCategory(String id) {
         Category category = findCategoryById(id);
-        if (!bookRepository.findByCategory_Id(id).isEmpty()) {
-            throw new BusinessException("Cannot delete category with existing books");
+        if (bookRepository.existsByCategory_Id(id)) {
+            throw new BusinessException(Reason.IN_USE, "Cannot delete category with existing books");
         }
         categoryRepository.delete(category);
+        catalogCache.evictCategory(id);
     }
 
     private Category findCategoryById(String id) {
@@ -60,13 +98,41 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
     }
 
+    private List<CategoryDTO> toDTOs(List<Category> categories) {
+        if (categories.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Long> bookCounts = countBooksByCategory();
+        return categories.stream()
+                .map(category -> toDTO(category, bookCounts.getOrDefault(category.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Long> countBooksByCategory() {
+        return bookRepository.countBooksGroupedByCategory().stream()
+                .filter(count -> count.getCategoryId() != null)
+                .collect(Collectors.toMap(CategoryBookCount::getCategoryId, CategoryBookCount::getCount));
+    }
+
     private CategoryDTO toDTO(Category category) {
-        int bookCount = bookRepository.findByCategory_Id(category.getId()).size();
+        return toDTO(category, bookRepository.countByCategory_Id(category.getId()));
+    }
+
+    private CategoryDTO toDTO(CategorySummary category) {
+        return CategoryDTO.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .bookCount((int) category.getBookCount())
+                .build();
+    }
+
+    private CategoryDTO toDTO(Category category, long bookCount) {
         return CategoryDTO.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .description(category.getDescription())
-                .bookCount(bookCount)
+                .bookCount((int) bookCount)
                 .build();
     }
 }
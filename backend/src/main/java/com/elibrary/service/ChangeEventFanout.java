@@ -0,0 +1,129 @@
+package com.elibrary.service;
+
+import com.elibrary.event.ChangeEventSubscriber;
+import com.elibrary.event.CollectionChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands change events to every interested subscriber through its own bounded queue, drained in
+ * batches on a dedicated thread, and tracks how far each subscriber got per collection. A batch
+ * counts as handled only once the subscriber accepted it; a failing batch is retried with backoff.
+ */
+@Slf4j
+class ChangeEventFanout {
+
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 100;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    private final List<Worker> workers = new ArrayList<>();
+
+    ChangeEventFanout(List<ChangeEventSubscriber> subscribers, int queueCapacity, int batchSize) {
+        this(subscribers, queueCapacity, batchSize, INITIAL_RETRY_DELAY_MILLIS);
+    }
+
+    ChangeEventFanout(List<ChangeEventSubscriber> subscribers, int queueCapacity, int batchSize,
+                      long initialRetryDelayMillis) {
+        subscribers.forEach(subscriber ->
+                workers.add(new Worker(subscriber, queueCapacity, batchSize, initialRetryDelayMillis)));
+    }
+
+    void start() {
+        workers.forEach(worker -> worker.thread.start());
+    }
+
+    // Events still queued are dropped; they are not marked handled, so they are replayed after a restart
+    void stop() throws InterruptedException {
+        workers.forEach(worker -> worker.thread.interrupt());
+        for (Worker worker : workers) {
+            worker.thread.join(5_000);
+        }
+    }
+
+    // Blocks while a queue is full, so a slow subscriber slows the stream down instead of losing events
+    void publish(long sequence, CollectionChangeEvent event) throws InterruptedException {
+        for (Worker worker : workers) {
+            if (worker.subscriber.collections().contains(event.collection())) {
+                worker.queue.put(new SequencedEvent(sequence, event));
+            }
+        }
+    }
+
+    // Highest sequence of the collection that every interested subscriber has handled
+    long handledUpTo(String collection, long published) {
+        long handled = published;
+        for (Worker worker : workers) {
+            if (worker.subscriber.collections().contains(collection)) {
+                handled = Math.min(handled, worker.handled.getOrDefault(collection, 0L));
+            }
+        }
+        return handled;
+    }
+
+    private record SequencedEvent(long sequence, CollectionChangeEvent event) {
+    }
+
+    private static class Worker implements Runnable {
+
+        private final ChangeEventSubscriber subscriber;
+        private final BlockingQueue<SequencedEvent> queue;
+        private final int batchSize;
+        private final long initialRetryDelayMillis;
+        private final Map<String, Long> handled = new ConcurrentHashMap<>();
+        private final Thread thread;
+
+        Worker(ChangeEventSubscriber subscriber, int queueCapacity, int batchSize, long initialRetryDelayMillis) {
+            this.subscriber = subscriber;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.batchSize = batchSize;
+            this.initialRetryDelayMillis = initialRetryDelayMillis;
+            this.thread = new Thread(this, "change-events-" + subscriber.getClass().getSimpleName());
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<SequencedEvent> batch = new ArrayList<>(batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                // Whatever queued up while the last batch was handled goes out together
+                queue.drainTo(batch, batchSize - 1);
+                if (!deliver(batch.stream().map(SequencedEvent::event).toList())) {
+                    return;
+                }
+                batch.forEach(sequenced ->
+                        handled.merge(sequenced.event().collection(), sequenced.sequence(), Math::max));
+                batch.clear();
+            }
+        }
+
+        // Retries until the subscriber accepts the batch; false when interrupted first, leaving it unhandled
+        private boolean deliver(List<CollectionChangeEvent> events) {
+            long delay = initialRetryDelayMillis;
+            while (true) {
+                try {
+                    subscriber.onChanges(events);
+                    return true;
+                } catch (RuntimeException ex) {
+                    log.warn("{} failed on {} change events, retrying in {} ms: {}",
+                            subscriber.getClass().getSimpleName(), events.size(), delay, ex.getMessage());
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ex) {
+                    return false;
+                }
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.elibrary.service;
+
+import com.elibrary.entity.Book;
+import com.elibrary.entity.ChangeStreamOffset;
+import com.elibrary.entity.Loan;
+import com.elibrary.event.ChangeEventSubscriber;
+import com.elibrary.event.CollectionChangeEvent;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoInterruptedException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches the books and loans collections through Mongo change streams and feeds every change to
+ * the {@link ChangeEventSubscriber} beans. The resume token of the last change all subscribers have
+ * handled is saved periodically, so a restart continues where processing stopped. Change streams
+ * need a replica set; a single node is enough.
+ */
+@Slf4j
+@Component
+public class ChangeStreamPipeline {
+
+    private static final long RETRY_DELAY_MILLIS = 5_000;
+    // The saved token has fallen out of the oplog, or the stream cannot resume from it
+    private static final Set<Integer> UNRESUMABLE_CODES = Set.of(260, 280, 286);
+
+    private final MongoTemplate mongoTemplate;
+    private final ChangeEventFanout fanout;
+    private final boolean enabled;
+    private final Map<String, Watcher> watchers = new LinkedHashMap<>();
+
+    public ChangeStreamPipeline(MongoTemplate mongoTemplate, List<ChangeEventSubscriber> subscribers,
+                                @Value("${elibrary.change-streams.enabled:false}") boolean enabled,
+                                @Value("${elibrary.change-streams.queue-capacity:10000}") int queueCapacity,
+                                @Value("${elibrary.change-streams.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.fanout = new ChangeEventFanout(subscribers, queueCapacity, batchSize);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || !watchers.isEmpty()) {
+            return;
+        }
+        fanout.start();
+        for (Class<?> entity : List.of(Book.class, Loan.class)) {
+            String collection = mongoTemplate.getCollectionName(entity);
+            ChangeStreamOffset offset = mongoTemplate.findById(collection, ChangeStreamOffset.class);
+            Watcher watcher = new Watcher(collection,
+                    offset != null ? BsonDocument.parse(offset.getResumeToken()) : null);
+            watchers.put(collection, watcher);
+            watcher.thread.start();
+        }
+        log.info("Watching {} for changes", watchers.keySet());
+    }
+
+    @Scheduled(fixedDelayString = "${elibrary.change-streams.checkpoint-interval:PT5S}")
+    public void checkpoint() {
+        watchers.values().forEach(Watcher::checkpoint);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        for (Watcher watcher : watchers.values()) {
+            watcher.running = false;
+            watcher.thread.interrupt();
+            watcher.thread.join(5_000);
+        }
+        fanout.stop();
+        checkpoint();
+        watchers.clear();
+    }
+
+    private class Watcher implements Runnable {
+
+        private final String collection;
+        private final Thread thread;
+        private final AtomicLong published = new AtomicLong();
+        // Resume tokens of published changes not yet saved, by sequence
+        private final NavigableMap<Long, BsonDocument> tokens = new ConcurrentSkipListMap<>();
+        private volatile BsonDocument resumeToken;
+        private volatile boolean running = true;
+        private long checkpointed;
+
+        Watcher(String collection, BsonDocument resumeToken) {
+            this.collection = collection;
+            this.resumeToken = resumeToken;
+            this.thread = new Thread(this, "change-stream-" + collection);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                    while (running) {
+                        // Waits up to maxAwaitTime, so a stop request is noticed within a second
+                        ChangeStreamDocument<Document> change = cursor.tryNext();
+                        if (change != null) {
+                            publish(change);
+                        }
+                    }
+                } catch (InterruptedException | MongoInterruptedException ex) {
+                    return;
+                } catch (MongoCommandException ex) {
+                    if (UNRESUMABLE_CODES.contains(ex.getErrorCode())) {
+                        log.error("Cannot resume change stream on {}, changes since the last checkpoint are lost: {}",
+                                collection, ex.getErrorMessage());
+                        resumeToken = null;
+                    } else if (!pause(ex)) {
+                        return;
+                    }
+                } catch (RuntimeException ex) {
+                    if (!pause(ex)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+            ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(collection).watch()
+                    .fullDocument(FullDocument.UPDATE_LOOKUP)
+                    .maxAwaitTime(1, TimeUnit.SECONDS);
+            // startAfter, unlike resumeAfter, also gets past an invalidate event
+            return (resumeToken != null ? stream.startAfter(resumeToken) : stream).cursor();
+        }
+
+        private void publish(ChangeStreamDocument<Document> change) throws InterruptedException {
+            long sequence = published.incrementAndGet();
+            tokens.put(sequence, change.getResumeToken());
+            resumeToken = change.getResumeToken();
+            fanout.publish(sequence, new CollectionChangeEvent(collection, change.getOperationType(),
+                    documentId(change), change.getFullDocument(),
+                    change.getClusterTime() != null ? Instant.ofEpochSecond(change.getClusterTime().getTime()) : null));
+        }
+
+        private boolean pause(RuntimeException ex) {
+            log.warn("Change stream on {} failed, reopening in {} ms: {}", collection, RETRY_DELAY_MILLIS,
+                    ex.getMessage());
+            try {
+                Thread.sleep(RETRY_DELAY_MILLIS);
+                return true;
+            } catch (InterruptedException interrupted) {
+                return false;
+            }
+        }
+
+        synchronized void checkpoint() {
+            long handled = fanout.handledUpTo(collection, published.get());
+            Map.Entry<Long, BsonDocument> entry = tokens.floorEntry(handled);
+            if (entry == null || entry.getKey() <= checkpointed) {
+                return;
+            }
+            mongoTemplate.save(new ChangeStreamOffset(collection, entry.getValue().toJson(), LocalDateTime.now()));
+            tokens.headMap(entry.getKey(), true).clear();
+            checkpointed = entry.getKey();
+        }
+    }
+
+    private static String documentId(ChangeStreamDocument<Document> change) {
+        BsonDocument key = change.getDocumentKey();
+        BsonValue id = key != null ? key.get("_id") : null;
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
@@ -0,0 +1,346 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.CategoryTopTitlesDTO;
+import com.elibrary.dto.CirculationBackfillDTO;
+import com.elibrary.dto.CirculationDayDTO;
+import com.elibrary.dto.CirculationReportDTO;
+import com.elibrary.dto.TopTitleDTO;
+import com.elibrary.entity.Book;
+import com.elibrary.entity.Category;
+import com.elibrary.entity.CirculationRollup;
+import com.elibrary.entity.Loan;
+import com.elibrary.exception.BusinessException;
+import com.elibrary.exception.BusinessException.Reason;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.CategoryRepository;
+import com.elibrary.repository.CirculationRollupRepository;
+import com.elibrary.repository.CirculationRollupRepositoryCustom.RollupIncrement;
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.MongoIds;
+import com.elibrary.repository.projection.BookCirculationRef;
+import com.elibrary.repository.projection.BookLoanCount;
+import com.elibrary.repository.projection.CategoryRef;
+import com.elibrary.repository.projection.CategoryTitles;
+import com.elibrary.repository.projection.CirculationTotals;
+import com.elibrary.repository.projection.LoanHistory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Daily circulation per book, labelled with the book's category, kept in rollups so analytics
+ * never scan the loans. Checkouts, returns and the overdue sweep add to the rollups of the day
+ * they happen, which is always today, so {@link #backfill()} can rebuild every earlier day from
+ * the loan history without racing them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CirculationAnalyticsService {
+
+    public static final int MAX_TOP_TITLES = 50;
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private final CirculationRollupRepository rollupRepository;
+    private final LoanRepository loanRepository;
+    private final BookRepository bookRepository;
+    private final CategoryRepository categoryRepository;
+
+    @Value("${elibrary.analytics.max-range-days:366}")
+    private int maxRangeDays = 366;
+
+    @Value("${elibrary.analytics.backfill-batch-size:1000}")
+    private int backfillBatchSize = 1000;
+
+    @Value("${elibrary.analytics.backfill-parallelism:0}")
+    private int backfillParallelism = 0;
+
+    // Fills the rollups the first time the application starts on a database that already has loans
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (rollupRepository.count() == 0 && loanRepository.count() > 0) {
+                backfill();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Circulation rollup backfill failed, analytics cover only new loans: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${elibrary.analytics.backfill-cron:-}")
+    public void scheduledBackfill() {
+        try {
+            backfill();
+        } catch (RuntimeException ex) {
+            log.warn("Scheduled circulation rollup backfill failed: {}", ex.getMessage());
+        }
+    }
+
+    public void recordCheckouts(List<Book> books) {
+        LocalDate today = LocalDate.now();
+        update("checkouts", () -> books.stream()
+                .map(book -> new RollupIncrement(today, book.getId(),
+                        MongoIds.referenceId(book.getCategory(), Category::getId), book.getTitle(), 1, 0, 0))
+                .collect(Collectors.toList()));
+    }
+
+    public void recordReturns(List<Loan> loans) {
+        update("returns", () -> {
+            Map<String, BookCirculationRef> books = circulationRefs(loans.stream()
+                    .map(loan -> MongoIds.referenceId(loan.getBook(), Book::getId)));
+            List<RollupIncrement> increments = new ArrayList<>();
+            for (Loan loan : loans) {
+                String bookId = MongoIds.referenceId(loan.getBook(), Book::getId);
+                if (bookId == null || loan.getReturnDate() == null) {
+                    continue;
+                }
+                // A late return the sweep never caught still went overdue, on the day it came back
+                boolean lateUnswept = loan.getOverdueSince() == null && loan.getDueDate() != null
+                        && loan.getReturnDate().isAfter(loan.getDueDate());
+                increments.add(increment(loan.getReturnDate(), bookId, books.get(bookId), 0, 1, lateUnswept ? 1 : 0));
+            }
+            return increments;
+        });
+    }
+
+    // Counts the loans the given sweep marked OVERDUE for the first time
+    public void recordOverdue(LocalDate day, String sweepId) {
+        update("overdue loans", () -> {
+            List<BookLoanCount> counts = loanRepository.countByOverdueSweepIdGroupedByBook(sweepId);
+            Map<String, BookCirculationRef> books = circulationRefs(counts.stream().map(BookLoanCount::getBookId));
+            return counts.stream()
+                    .filter(count -> count.getBookId() != null)
+                    .map(count -> increment(day, count.getBookId(), books.get(count.getBookId()), 0, 0,
+                            count.getCount()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    public CirculationReportDTO getCirculation(LocalDate from, LocalDate to, String categoryId) {
+        DateRange range = range(from, to);
+        Map<LocalDate, CirculationTotals> byDay = rollupRepository.sumByDay(range.from(), range.to(), categoryId)
+                .stream()
+                .collect(Collectors.toMap(CirculationTotals::getDay, Function.identity()));
+
+        List<CirculationDayDTO> days = new ArrayList<>();
+        long checkouts = 0;
+        long returns = 0;
+        long overdue = 0;
+        for (LocalDate day = range.from(); !day.isAfter(range.to()); day = day.plusDays(1)) {
+            CirculationTotals totals = byDay.getOrDefault(day, new CirculationTotals(day, 0, 0, 0));
+            days.add(new CirculationDayDTO(day, totals.getCheckouts(), totals.getReturns(), totals.getOverdue()));
+            checkouts += totals.getCheckouts();
+            returns += totals.getReturns();
+            overdue += totals.getOverdue();
+        }
+        return CirculationReportDTO.builder()
+                .from(range.from())
+                .to(range.to())
+                .categoryId(categoryId)
+                .categoryName(categoryId != null ? categoryNames(Set.of(categoryId)).get(categoryId) : null)
+                .checkouts(checkouts)
+                .returns(returns)
+                .overdue(overdue)
+                .overdueRate(checkouts > 0 ? (double) overdue / checkouts : 0)
+                .days(days)
+                .build();
+    }
+
+    public List<CategoryTopTitlesDTO> getTopTitles(LocalDate from, LocalDate to, String categoryId, int limit) {
+        if (limit < 1 || limit > MAX_TOP_TITLES) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "Limit must be between 1 and " + MAX_TOP_TITLES);
+        }
+        DateRange range = range(from, to);
+        List<CategoryTitles> categories = rollupRepository.topTitlesByCategory(range.from(), range.to(), categoryId,
+                limit);
+        Map<String, String> categoryNames = categoryNames(categories.stream()
+                .map(CategoryTitles::getCategoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        return categories.stream()
+                .map(category -> CategoryTopTitlesDTO.builder()
+                        .categoryId(category.getCategoryId())
+                        .categoryName(categoryNames.get(category.getCategoryId()))
+                        .titles(category.getTitles().stream()
+                                .map(title -> new TopTitleDTO(title.getBookId(), title.getBookTitle(),
+                                        title.getCheckouts(), title.getReturns(), title.getOverdue()))
+                                .collect(Collectors.toList()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Rebuilds the rollups of every day before today from the loan history. The history is read
+     * once, in batches that are counted and written in parallel, so rollups of those days are
+     * incomplete until it returns. Backfills run one at a time.
+     */
+    public synchronized CirculationBackfillDTO backfill() {
+        long started = System.nanoTime();
+        LocalDate before = LocalDate.now();
+        rollupRepository.deleteByDayBefore(before);
+
+        int parallelism = backfillParallelism > 0 ? backfillParallelism : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        // Bounds how far reading the history runs ahead of the writes
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        long loans = 0;
+        try (Stream<Future<Integer>> batches = StreamBatches.mapInChunks(loanRepository.streamHistoryBy(),
+                backfillBatchSize, batch -> {
+                    inFlight.acquireUninterruptibly();
+                    return List.of(pool.submit(() -> {
+                        try {
+                            return backfillBatch(batch, before);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                })) {
+            for (Future<Integer> batch : batches.collect(Collectors.toList())) {
+                loans += batch.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Circulation rollup backfill was interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long rollups = rollupRepository.countByDayBefore(before);
+        long durationMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Backfilled {} circulation rollups before {} from {} loans in {} ms", rollups, before, loans,
+                durationMillis);
+        return CirculationBackfillDTO.builder()
+                .before(before)
+                .loans(loans)
+                .rollups(rollups)
+                .durationMillis(durationMillis)
+                .build();
+    }
+
+    private int backfillBatch(List<LoanHistory> batch, LocalDate before) {
+        Map<String, BookCirculationRef> books = circulationRefs(batch.stream()
+                .map(loan -> MongoIds.referenceId(loan.getBook())));
+        List<RollupIncrement> increments = new ArrayList<>();
+        for (LoanHistory loan : batch) {
+            String bookId = MongoIds.referenceId(loan.getBook());
+            if (bookId == null) {
+                continue;
+            }
+            BookCirculationRef book = books.get(bookId);
+            if (isBefore(loan.getLoanDate(), before)) {
+                increments.add(increment(loan.getLoanDate(), bookId, book, 1, 0, 0));
+            }
+            if (isBefore(loan.getReturnDate(), before)) {
+                increments.add(increment(loan.getReturnDate(), bookId, book, 0, 1, 0));
+            }
+            LocalDate overdueDay = overdueDay(loan);
+            if (isBefore(overdueDay, before)) {
+                increments.add(increment(overdueDay, bookId, book, 0, 0, 1));
+            }
+        }
+        rollupRepository.increment(merge(increments));
+        return batch.size();
+    }
+
+    // The day the live updates count a loan as gone overdue, or null if they never do
+    static LocalDate overdueDay(LoanHistory loan) {
+        if (loan.getOverdueSince() != null) {
+            return loan.getOverdueSince();
+        }
+        if (loan.getStatus() == Loan.LoanStatus.OVERDUE && loan.getDueDate() != null) {
+            // Marked before the sweep recorded overdueSince
+            return loan.getDueDate().plusDays(1);
+        }
+        if (loan.getReturnDate() != null && loan.getDueDate() != null
+                && loan.getReturnDate().isAfter(loan.getDueDate())) {
+            return loan.getReturnDate();
+        }
+        return null;
+    }
+
+    private static boolean isBefore(LocalDate day, LocalDate before) {
+        return day != null && day.isBefore(before);
+    }
+
+    // A failed update leaves the loan change in place; the next backfill restores the rollups
+    private void update(String what, Supplier<List<RollupIncrement>> increments) {
+        try {
+            rollupRepository.increment(merge(increments.get()));
+        } catch (RuntimeException ex) {
+            log.warn("Could not add {} to the circulation rollups: {}", what, ex.getMessage());
+        }
+    }
+
+    private static RollupIncrement increment(LocalDate day, String bookId, BookCirculationRef book,
+            long checkouts, long returns, long overdue) {
+        return new RollupIncrement(day, bookId, book != null ? MongoIds.referenceId(book.getCategory()) : null,
+                book != null ? book.getTitle() : null, checkouts, returns, overdue);
+    }
+
+    // One increment per rollup, so a batch never upserts the same rollup twice
+    private static Collection<RollupIncrement> merge(List<RollupIncrement> increments) {
+        Map<String, RollupIncrement> merged = new LinkedHashMap<>();
+        for (RollupIncrement increment : increments) {
+            merged.merge(CirculationRollup.key(increment.day(), increment.bookId()), increment,
+                    (first, second) -> new RollupIncrement(first.day(), first.bookId(),
+                            first.categoryId() != null ? first.categoryId() : second.categoryId(),
+                            first.bookTitle() != null ? first.bookTitle() : second.bookTitle(),
+                            first.checkouts() + second.checkouts(), first.returns() + second.returns(),
+                            first.overdue() + second.overdue()));
+        }
+        return merged.values();
+    }
+
+    private Map<String, BookCirculationRef> circulationRefs(Stream<String> bookIds) {
+        Set<String> ids = bookIds.filter(Objects::nonNull).collect(Collectors.toSet());
+        return ids.isEmpty() ? Map.of()
+                : bookRepository.findCirculationRefsByIdIn(ids).stream()
+                        .collect(Collectors.toMap(BookCirculationRef::getId, Function.identity()));
+    }
+
+    private Map<String, String> categoryNames(Set<String> categoryIds) {
+        return categoryIds.isEmpty() ? Map.of()
+                : categoryRepository.findRefsByIdIn(categoryIds).stream()
+                        .collect(Collectors.toMap(CategoryRef::getId, CategoryRef::getName));
+    }
+
+    // Defaults to the last DEFAULT_RANGE_DAYS days up to today
+    private DateRange range(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) + 1 > maxRangeDays) {
+            throw new BusinessException(Reason.INVALID_REQUEST,
+                    "A range may cover at most " + maxRangeDays + " days");
+        }
+        return new DateRange(start, end);
+    }
+
+    private record DateRange(LocalDate from, LocalDate to) {
+    }
+}
@@ -0,0 +1,164 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.CursorPageDTO;
+import com.elibrary.exception.BusinessException;
+import com.elibrary.exception.BusinessException.Reason;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset pagination helpers shared by the list services. Cursors are opaque,
+ * URL-safe tokens carrying the sort key and the keyset of the last returned row.
+ */
+public final class CursorPaging {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String ID_PROPERTY = "id";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> TOKEN_TYPE = new TypeReference<>() {
+    };
+
+    private CursorPaging() {
+    }
+
+    /**
+     * Parses {@code title} or {@code -title} into a sort that always ends with the id as tie-breaker.
+     */
+    public static Sort sort(String sort, Set<String> allowedProperties) {
+        String key = sort == null || sort.isBlank() ? ID_PROPERTY : sort.trim();
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (key.startsWith("-")) {
+            direction = Sort.Direction.DESC;
+            key = key.substring(1);
+        }
+        if (!ID_PROPERTY.equals(key) && !allowedProperties.contains(key)) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "Unsupported sort key: " + key);
+        }
+        Sort resolved = Sort.by(direction, key);
+        return ID_PROPERTY.equals(key) ? resolved : resolved.and(Sort.by(direction, ID_PROPERTY));
+    }
+
+    public static Limit limit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return Limit.of(size);
+    }
+
+    public static KeysetScrollPosition position(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> token;
+        try {
+            token = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), TOKEN_TYPE);
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "Invalid cursor");
+        }
+        if (!sort.toString().equals(token.get("sort"))) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "Cursor was issued for a different sort order");
+        }
+        if (!(token.get("keys") instanceof Map<?, ?> encodedKeys)) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "Invalid cursor");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        encodedKeys.forEach((name, typed) -> {
+            if (!(typed instanceof List<?> pair) || pair.size() != 2) {
+                throw new BusinessException(Reason.INVALID_REQUEST, "Invalid cursor");
+            }
+            keys.put(String.valueOf(name), decodeValue(String.valueOf(pair.get(0)), String.valueOf(pair.get(1))));
+        });
+        return ScrollPosition.forward(keys);
+    }
+
+    public static <T, R> CursorPageDTO<R> page(Window<T> window, Sort sort, Function<T, R> mapper) {
+        List<R> items = window.getContent().stream().map(mapper).collect(Collectors.toList());
+        return page(window, sort, items);
+    }
+
+    public static <T, R> CursorPageDTO<R> page(Window<T> window, Sort sort, List<R> items) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = encode(window.positionAt(window.size() - 1), sort);
+        }
+        return CursorPageDTO.<R>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .sort(sort.toString())
+                .build();
+    }
+
+    private static String encode(ScrollPosition position, Sort sort) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalStateException("Expected a keyset scroll position but got " + position);
+        }
+        Map<String, List<String>> encodedKeys = new LinkedHashMap<>();
+        keyset.getKeys().forEach((name, value) -> encodedKeys.put(name, encodeValue(value)));
+
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("sort", sort.toString());
+        token.put("keys", encodedKeys);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(token));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not encode cursor", ex);
+        }
+    }
+
+    // Keyset values are typed so the resumed query compares like with like
+    private static List<String> encodeValue(Object value) {
+        if (value instanceof String string) {
+            return List.of("s", string);
+        }
+        if (value instanceof Integer number) {
+            return List.of("i", number.toString());
+        }
+        if (value instanceof Long number) {
+            return List.of("l", number.toString());
+        }
+        if (value instanceof ObjectId objectId) {
+            return List.of("o", objectId.toHexString());
+        }
+        if (value instanceof LocalDate date) {
+            return List.of("d", date.toString());
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return List.of("t", dateTime.toString());
+        }
+        if (value instanceof Enum<?> constant) {
+            return List.of("s", constant.name());
+        }
+        return List.of("s", String.valueOf(value));
+    }
+
+    private static Object decodeValue(String type, String value) {
+        try {
+            return switch (type) {
+                case "s" -> value;
+                case "i" -> Integer.valueOf(value);
+                case "l" -> Long.valueOf(value);
+                case "o" -> new ObjectId(value);
+                case "d" -> LocalDate.parse(value);
+                case "t" -> LocalDateTime.parse(value);
+                default -> throw new IllegalArgumentException("Unknown cursor value type " + type);
+            };
+        } catch (RuntimeException ex) {
+            throw new BusinessException(Reason.INVALID_REQUEST, "Invalid cursor");
+        }
+    }
+}
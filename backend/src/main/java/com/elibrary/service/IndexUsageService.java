@@ -0,0 +1,43 @@
+package com.elibrary.service;
+
+import com.elibrary.config.MongoIndexManager;
+import com.elibrary.dto.IndexUsageDTO;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reports how often each index has been used since the server last started, from $indexStats.
+ */
+@Service
+@RequiredArgsConstructor
+public class IndexUsageService {
+
+    private final MongoTemplate mongoTemplate;
+
+    public List<IndexUsageDTO> getIndexUsage() {
+        List<IndexUsageDTO> usage = new ArrayList<>();
+        // The same entities the index manager creates indexes for
+        for (Class<?> entity : MongoIndexManager.INDEXED_ENTITIES) {
+            String collection = mongoTemplate.getCollectionName(entity);
+            for (Document stats : mongoTemplate.getCollection(collection)
+                    .aggregate(List.of(new Document("$indexStats", new Document())))) {
+                Document accesses = stats.get("accesses", Document.class);
+                usage.add(IndexUsageDTO.builder()
+                        .collection(collection)
+                        .name(stats.getString("name"))
+                        .key(stats.get("key", Document.class))
+                        .ops(accesses != null ? ((Number) accesses.get("ops")).longValue() : 0)
+                        .since(accesses != null ? accesses.getDate("since") : null)
+                        .build());
+            }
+        }
+        // Least used first, since those are the candidates for dropping
+        usage.sort(Comparator.comparingLong(IndexUsageDTO::getOps));
+        return usage;
+    }
+}
@@ -0,0 +1,8 @@
+package com.elibrary.service;
+
+public enum LoanReadModel {
+    // Loan listings resolve book title and user name from the referenced documents
+    REFERENCE,
+    // Loans carry bookTitle, bookIsbn and userName snapshots and are served from the loans collection alone
+    SNAPSHOT
+}
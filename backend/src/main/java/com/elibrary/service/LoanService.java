@@ -1,16 +1,31 @@
 package com.elibrary.service;
 
+import com.elibrary.dto.CursorPageDTO;
+import com.elibrary.dto.LoanBatchItemDTO;
+import com.elibrary.dto.LoanBatchResultDTO;
+import com.elibrary.dto.LoanCheckoutRequestDTO;
 import com.elibrary.dto.LoanDTO;
 import com.elibrary.entity.*;
 import com.elibrary.exception.BusinessException;
+import com.elibrary.exception.BusinessException.Reason;
 import com.elibrary.exception.ResourceNotFoundException;
 import com.elibrary.repository.*;
+import com.elibrary.repository.BookRepositoryCustom.CopyReservation;
+import com.elibrary.repository.projection.BookRef;
+import com.elibrary.repository.projection.UserLoanCount;
+import com.elibrary.repository.projection.UserRef;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -20,14 +35,35 @@ public class LoanService {
     private final LoanRepository loanRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
+    private final CatalogCache catalogCache;
+    private final BookAvailabilityIndex availabilityIndex;
+    private final BookRecommendationIndex recommendationIndex;
+    private final CirculationAnalyticsService circulationAnalytics;
+
+    @Value("${elibrary.loans.read-model:reference}")
+    private LoanReadModel readModel = LoanReadModel.REFERENCE;
+
+    @Value("${elibrary.loans.max-batch-size:100}")
+    private int maxBatchSize = 100;
 
     private static final int MAX_LOANS_PER_USER = 5;
     private static final int DEFAULT_LOAN_PERIOD_DAYS = 14;
+    private static final Set<String> PAGE_SORT_KEYS = Set.of("loanDate", "dueDate");
+    private static final int STREAM_CHUNK_SIZE = 500;
 
     public List<LoanDTO> getAllLoans() {
-        return loanRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(loanRepository.findAll());
+    }
+
+    public CursorPageDTO<LoanDTO> getLoansPage(String cursor, int size, String sort) {
+        Sort order = CursorPaging.sort(sort, PAGE_SORT_KEYS);
+        Window<Loan> window = loanRepository.findAllBy(CursorPaging.position(cursor, order), order,
+                CursorPaging.limit(size));
+        return CursorPaging.page(window, order, toDTOs(window.getContent()));
+    }
+
+    public Stream<LoanDTO> streamAllLoans() {
+        return StreamBatches.mapInChunks(loanRepository.streamAllBy(), STREAM_CHUNK_SIZE, this::toDTOs);
     }
 
     public LoanDTO getLoanById(String id) {
@@ -35,49 +71,229 @@ public class LoanService {
     }
 
     public List<LoanDTO> getLoansByUser(String userId) {
-        return loanRepository.findByUser_Id(userId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(loanRepository.findByUser_Id(MongoIds.toStored(userId)));
     }
 
     public List<LoanDTO> getActiveLoans() {
-        return loanRepository.findByStatus(Loan.LoanStatus.ACTIVE).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(loanRepository.findByStatusIn(Loan.LoanStatus.UNRETURNED));
     }
 
     public List<LoanDTO> getOverdueLoans() {
-        return loanRepository.findByStatusAndDueDateBefore(Loan.LoanStatus.ACTIVE, LocalDate.now()).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(loanRepository.findByStatus(Loan.LoanStatus.OVERDUE));
     }
 
     public LoanDTO checkoutBook(String bookId, String userId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
-
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         if (!user.getActive()) {
-            throw new BusinessException("User account is not active");
+            throw new BusinessException(Reason.USER_INACTIVE, "User account is not active");
         }
 
-        if (book.getAvailableCopies() <= 0) {
-            throw new BusinessException("No copies available for checkout");
+        if (user.getActiveLoans() == null) {
+            userRepository.initializeActiveLoans(userId,
+                    loanRepository.countByUser_IdAndStatusIn(MongoIds.toStored(userId), Loan.LoanStatus.UNRETURNED));
         }
 
-        long activeLoans = loanRepository.countByUser_IdAndStatus(userId, Loan.LoanStatus.ACTIVE);
-        if (activeLoans >= MAX_LOANS_PER_USER) {
-            throw new BusinessException("User has reached maximum loan limit of " + MAX_LOANS_PER_USER);
+        // Both limits are enforced by conditional single-document updates, so concurrent
+        // checkouts can neither oversell the last copy nor exceed the per-user limit
+        if (!userRepository.reserveLoanSlot(userId, MAX_LOANS_PER_USER)) {
+            throw new BusinessException(Reason.LOAN_LIMIT_REACHED,
+                    "User has reached maximum loan limit of " + MAX_LOANS_PER_USER);
+        }
+
+        Book book;
+        try {
+            book = bookRepository.reserveCopy(bookId).orElseThrow(() -> bookRepository.existsById(bookId)
+                    ? new BusinessException(Reason.NO_COPIES_AVAILABLE, "No copies available for checkout")
+                    : new ResourceNotFoundException("Book not found"));
+        } catch (RuntimeException ex) {
+            userRepository.releaseLoanSlot(userId);
+            throw ex;
+        }
+        catalogCache.evictBook(bookId);
+        availabilityIndex.index(book);
+
+        Loan loan;
+        try {
+            loan = loanRepository.save(newLoan(book, user));
+        } catch (RuntimeException ex) {
+            bookRepository.releaseCopy(bookId).ifPresent(availabilityIndex::index);
+            catalogCache.evictBook(bookId);
+            userRepository.releaseLoanSlot(userId);
+            throw ex;
+        }
+        recommendationIndex.recordLoan(bookId, userId);
+        circulationAnalytics.recordCheckouts(List.of(book));
+        return toDTO(loan);
+    }
+
+    public LoanDTO returnBook(String loanId) {
+        Loan loan = loanRepository.markReturned(loanId, LocalDate.now())
+                .orElseThrow(() -> loanRepository.existsById(loanId)
+                        ? new BusinessException(Reason.ALREADY_RETURNED, "Book has already been returned")
+                        : new ResourceNotFoundException("Loan not found with id: " + loanId));
+
+        String bookId = MongoIds.referenceId(loan.getBook(), Book::getId);
+        bookRepository.releaseCopy(bookId).ifPresent(availabilityIndex::index);
+        catalogCache.evictBook(bookId);
+        userRepository.releaseLoanSlot(MongoIds.referenceId(loan.getUser(), User::getId));
+        circulationAnalytics.recordReturns(List.of(loan));
+
+        return toDTO(loan);
+    }
+
+    // Same checks and limits as checkoutBook, with the lookups grouped and one conditional update per
+    // distinct user and book; items are served in request order when a user or book runs out
+    public LoanBatchResultDTO checkoutBooks(List<LoanCheckoutRequestDTO> requests) {
+        requireBatchSize(requests);
+        LoanBatchItemDTO[] results = new LoanBatchItemDTO[requests.size()];
+        Map<String, User> users = byId(userRepository.findAllById(distinctIds(requests.stream()
+                .map(LoanCheckoutRequestDTO::getUserId))), User::getId);
+        Map<String, Book> books = byId(bookRepository.findAllById(distinctIds(requests.stream()
+                .map(LoanCheckoutRequestDTO::getBookId))), Book::getId);
+
+        Map<String, List<Integer>> pendingByUser = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            LoanCheckoutRequestDTO request = requests.get(i);
+            User user = request.getUserId() != null ? users.get(request.getUserId()) : null;
+            if (user == null) {
+                results[i] = batchFailure(i, Reason.NOT_FOUND, "User not found");
+            } else if (!user.getActive()) {
+                results[i] = batchFailure(i, Reason.USER_INACTIVE, "User account is not active");
+            } else if (request.getBookId() == null || !books.containsKey(request.getBookId())) {
+                results[i] = batchFailure(i, Reason.NOT_FOUND, "Book not found");
+            } else {
+                pendingByUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<String> unseededUserIds = pendingByUser.keySet().stream()
+                .filter(userId -> users.get(userId).getActiveLoans() == null)
+                .collect(Collectors.toList());
+        if (!unseededUserIds.isEmpty()) {
+            Map<String, Long> activeLoans = loanRepository.countByUserIdsAndStatusIn(
+                            MongoIds.toStored(unseededUserIds), Loan.LoanStatus.UNRETURNED).stream()
+                    .collect(Collectors.toMap(UserLoanCount::getUserId, UserLoanCount::getCount));
+            unseededUserIds.forEach(userId ->
+                    userRepository.initializeActiveLoans(userId, activeLoans.getOrDefault(userId, 0L)));
+        }
+
+        Map<String, List<Integer>> pendingByBook = new LinkedHashMap<>();
+        pendingByUser.forEach((userId, indexes) -> {
+            int granted = userRepository.reserveLoanSlots(userId, MAX_LOANS_PER_USER, indexes.size());
+            for (int k = 0; k < indexes.size(); k++) {
+                int index = indexes.get(k);
+                if (k < granted) {
+                    pendingByBook.computeIfAbsent(requests.get(index).getBookId(), id -> new ArrayList<>()).add(index);
+                } else {
+                    results[index] = batchFailure(index, Reason.LOAN_LIMIT_REACHED,
+                            "User has reached maximum loan limit of " + MAX_LOANS_PER_USER);
+                }
+            }
+        });
+
+        Map<Integer, Loan> loansByIndex = new TreeMap<>();
+        Map<String, Integer> unusedSlots = new HashMap<>();
+        pendingByBook.forEach((bookId, indexes) -> {
+            Collections.sort(indexes);
+            CopyReservation reservation = bookRepository.reserveCopies(bookId, indexes.size());
+            int granted = reservation.granted();
+            if (granted > 0) {
+                catalogCache.evictBook(bookId);
+                availabilityIndex.setAvailable(bookId, reservation.remaining() > 0, reservation.version());
+            }
+            for (int k = 0; k < indexes.size(); k++) {
+                int index = indexes.get(k);
+                String userId = requests.get(index).getUserId();
+                if (k < granted) {
+                    Loan loan = newLoan(books.get(bookId), users.get(userId));
+                    // Assigned up front so a failed insert can be undone by id
+                    loan.setId(new ObjectId().toHexString());
+                    loansByIndex.put(index, loan);
+                } else {
+                    results[index] = batchFailure(index, Reason.NO_COPIES_AVAILABLE,
+                            "No copies available for checkout");
+                    unusedSlots.merge(userId, 1, Integer::sum);
+                }
+            }
+        });
+        userRepository.releaseLoanSlots(unusedSlots);
+
+        List<Loan> loans = new ArrayList<>(loansByIndex.values());
+        try {
+            loanRepository.insert(loans);
+        } catch (RuntimeException ex) {
+            loanRepository.deleteAllById(loans.stream().map(Loan::getId).collect(Collectors.toList()));
+            releaseInventory(loans);
+            throw ex;
+        }
+        loans.forEach(loan -> recommendationIndex.recordLoan(loan.getBook().getId(), loan.getUser().getId()));
+        circulationAnalytics.recordCheckouts(loans.stream().map(Loan::getBook).collect(Collectors.toList()));
+        loansByIndex.forEach((index, loan) -> results[index] = batchSuccess(index,
+                toDTO(loan, loan.getBook().getTitle(), loan.getUser().getName())));
+        return toBatchResult(results);
+    }
+
+    // Same outcomes as returnBook, with one update for all loans and one bulk write each for copies and slots
+    public LoanBatchResultDTO returnBooks(List<String> loanIds) {
+        requireBatchSize(loanIds);
+        LoanBatchItemDTO[] results = new LoanBatchItemDTO[loanIds.size()];
+        Set<String> distinctLoanIds = new LinkedHashSet<>();
+        for (int i = 0; i < loanIds.size(); i++) {
+            String loanId = loanIds.get(i);
+            if (loanId == null) {
+                results[i] = batchFailure(i, Reason.NOT_FOUND, "Loan not found with id: null");
+            } else if (!distinctLoanIds.add(loanId)) {
+                results[i] = batchFailure(i, Reason.INVALID_REQUEST, "Loan " + loanId + " appears twice in the batch");
+            }
+        }
+
+        List<Loan> returned = distinctLoanIds.isEmpty() ? List.of()
+                : loanRepository.markReturned(distinctLoanIds, LocalDate.now(), UUID.randomUUID().toString());
+        releaseInventory(returned);
+        circulationAnalytics.recordReturns(returned);
+        Map<String, LoanDTO> returnedById = byId(toDTOs(returned), LoanDTO::getId);
+
+        Set<String> notReturned = new HashSet<>(distinctLoanIds);
+        notReturned.removeAll(returnedById.keySet());
+        Set<String> existing = notReturned.isEmpty() ? Set.of()
+                : loanRepository.findAllById(notReturned).stream().map(Loan::getId).collect(Collectors.toSet());
+
+        for (int i = 0; i < loanIds.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            String loanId = loanIds.get(i);
+            if (returnedById.containsKey(loanId)) {
+                results[i] = batchSuccess(i, returnedById.get(loanId));
+            } else if (existing.contains(loanId)) {
+                results[i] = batchFailure(i, Reason.ALREADY_RETURNED, "Book has already been returned");
+            } else {
+                results[i] = batchFailure(i, Reason.NOT_FOUND, "Loan not found with id: " + loanId);
+            }
+        }
+        return toBatchResult(results);
+    }
+
+    public LoanDTO extendLoan(String loanId, int days) {
+        Loan loan = findLoanById(loanId);
+
+        if (loan.getStatus() == Loan.LoanStatus.RETURNED) {
+            throw new BusinessException(Reason.LOAN_NOT_EXTENDABLE, "Can only extend active loans");
         }
 
-        // Update book availability
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
-        book.setAvailable(book.getAvailableCopies() > 0);
-        bookRepository.save(book);
+        LocalDate newDueDate = loan.getDueDate().plusDays(days);
+        Loan.LoanStatus newStatus = newDueDate.isBefore(LocalDate.now())
+                ? Loan.LoanStatus.OVERDUE
+                : Loan.LoanStatus.ACTIVE;
+        return loanRepository.changeDueDate(loanId, loan.getDueDate(), newDueDate, newStatus)
+                .map(this::toDTO)
+                .orElseThrow(() -> new BusinessException(Reason.CONCURRENT_MODIFICATION,
+                        "Loan was modified concurrently, please retry"));
+    }
 
-        // Create loan
+    private Loan newLoan(Book book, User user) {
         Loan loan = Loan.builder()
                 .book(book)
                 .user(user)
@@ -85,39 +301,55 @@ public class LoanService {
                 .dueDate(LocalDate.now().plusDays(DEFAULT_LOAN_PERIOD_DAYS))
                 .status(Loan.LoanStatus.ACTIVE)
                 .build();
-
-        return toDTO(loanRepository.save(loan));
+        if (readModel == LoanReadModel.SNAPSHOT) {
+            loan.setBookTitle(book.getTitle());
+            loan.setBookIsbn(book.getIsbn());
+            loan.setUserName(user.getName());
+        }
+        return loan;
     }
 
-    public LoanDTO returnBook(String loanId) {
-        Loan loan = findLoanById(loanId);
-
-        if (loan.getStatus() == Loan.LoanStatus.RETURNED) {
-            throw new BusinessException("Book has already been returned");
+    // Puts back the copies and slots held by the given loans
+    private void releaseInventory(List<Loan> loans) {
+        Map<String, Integer> copies = new HashMap<>();
+        Map<String, Integer> slots = new HashMap<>();
+        for (Loan loan : loans) {
+            copies.merge(MongoIds.referenceId(loan.getBook(), Book::getId), 1, Integer::sum);
+            slots.merge(MongoIds.referenceId(loan.getUser(), User::getId), 1, Integer::sum);
         }
+        bookRepository.releaseCopies(copies);
+        userRepository.releaseLoanSlots(slots);
+        copies.keySet().forEach(catalogCache::evictBook);
+        // The bulk release does not return the books, so their availability and version are read back
+        availabilityIndex.refresh(copies.keySet());
+    }
 
-        // Update book availability
-        Book book = loan.getBook();
-        book.setAvailableCopies(book.getAvailableCopies() + 1);
-        book.setAvailable(true);
-        bookRepository.save(book);
-
-        // Update loan
-        loan.setReturnDate(LocalDate.now());
-        loan.setStatus(Loan.LoanStatus.RETURNED);
+    private void requireBatchSize(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > maxBatchSize) {
+            throw new BusinessException(Reason.INVALID_REQUEST,
+                    "A batch must contain between 1 and " + maxBatchSize + " items");
+        }
+    }
 
-        return toDTO(loanRepository.save(loan));
+    private static Set<String> distinctIds(Stream<String> ids) {
+        return ids.filter(Objects::nonNull).collect(Collectors.toSet());
     }
 
-    public LoanDTO extendLoan(String loanId, int days) {
-        Loan loan = findLoanById(loanId);
+    private static LoanBatchItemDTO batchSuccess(int index, LoanDTO loan) {
+        return LoanBatchItemDTO.builder().index(index).success(true).loan(loan).build();
+    }
 
-        if (loan.getStatus() != Loan.LoanStatus.ACTIVE) {
-            throw new BusinessException("Can only extend active loans");
-        }
+    private static LoanBatchItemDTO batchFailure(int index, Reason reason, String message) {
+        return LoanBatchItemDTO.builder().index(index).success(false).reason(reason.tag()).message(message).build();
+    }
 
-        loan.setDueDate(loan.getDueDate().plusDays(days));
-        return toDTO(loanRepository.save(loan));
+    private static LoanBatchResultDTO toBatchResult(LoanBatchItemDTO[] results) {
+        int succeeded = (int) Arrays.stream(results).filter(LoanBatchItemDTO::isSuccess).count();
+        return LoanBatchResultDTO.builder()
+                .succeeded(succeeded)
+                .failed(results.length - succeeded)
+                .items(Arrays.asList(results))
+                .build();
     }
 
     private Loan findLoanById(String id) {
@@ -125,13 +357,76 @@ public class LoanService {
                 .orElseThrow(() -> new ResourceNotFoundException("Loan not found with id: " + id));
     }
 
+    // Resolves the book and user references of a whole listing with one $in query per collection,
+    // reading only the fields a loan shows; in the SNAPSHOT read model only loans still lacking a
+    // snapshot need resolving
+    private List<LoanDTO> toDTOs(List<Loan> loans) {
+        if (loans.isEmpty()) {
+            return List.of();
+        }
+        if (readModel == LoanReadModel.SNAPSHOT && loans.stream().allMatch(this::hasSnapshot)) {
+            return loans.stream().map(this::toSnapshotDTO).collect(Collectors.toList());
+        }
+        Map<String, BookRef> books = byId(bookRepository.findRefsByIdIn(loans.stream()
+                .filter(loan -> readModel != LoanReadModel.SNAPSHOT || !hasSnapshot(loan))
+                .map(loan -> MongoIds.referenceId(loan.getBook(), Book::getId))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())), BookRef::getId);
+        Map<String, UserRef> users = byId(userRepository.findRefsByIdIn(loans.stream()
+                .filter(loan -> readModel != LoanReadModel.SNAPSHOT || !hasSnapshot(loan))
+                .map(loan -> MongoIds.referenceId(loan.getUser(), User::getId))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())), UserRef::getId);
+        return loans.stream()
+                .map(loan -> {
+                    if (readModel == LoanReadModel.SNAPSHOT && hasSnapshot(loan)) {
+                        return toSnapshotDTO(loan);
+                    }
+                    BookRef book = books.get(MongoIds.referenceId(loan.getBook(), Book::getId));
+                    UserRef user = users.get(MongoIds.referenceId(loan.getUser(), User::getId));
+                    return toDTO(loan, book != null ? book.getTitle() : null, user != null ? user.getName() : null);
+                })
+                .collect(Collectors.toList());
+    }
+
+    private boolean hasSnapshot(Loan loan) {
+        return loan.getBookTitle() != null && loan.getUserName() != null;
+    }
+
+    private LoanDTO toSnapshotDTO(Loan loan) {
+        return LoanDTO.builder()
+                .id(loan.getId())
+                .bookId(MongoIds.referenceId(loan.getBook(), Book::getId))
+                .bookTitle(loan.getBookTitle())
+                .userId(MongoIds.referenceId(loan.getUser(), User::getId))
+                .userName(loan.getUserName())
+                .loanDate(loan.getLoanDate())
+                .dueDate(loan.getDueDate())
+                .returnDate(loan.getReturnDate())
+                .status(loan.getStatus().name())
+                .build();
+    }
+
+    private static <T> Map<String, T> byId(Collection<T> entities, Function<T, String> idGetter) {
+        return entities.stream().collect(Collectors.toMap(idGetter, Function.identity(), (first, second) -> first));
+    }
+
     private LoanDTO toDTO(Loan loan) {
+        if (readModel == LoanReadModel.SNAPSHOT && hasSnapshot(loan)) {
+            return toSnapshotDTO(loan);
+        }
+        Book book = loan.getBook();
+        User user = loan.getUser();
+        return toDTO(loan, book != null ? book.getTitle() : null, user != null ? user.getName() : null);
+    }
+
+    private LoanDTO toDTO(Loan loan, String bookTitle, String userName) {
         return LoanDTO.builder()
                 .id(loan.getId())
-                .bookId(loan.getBook().getId())
-                .bookTitle(loan.getBook().getTitle())
-                .userId(loan.getUser().getId())
-                .userName(loan.getUser().getName())
+                .bookId(MongoIds.referenceId(loan.getBook(), Book::getId))
+                .bookTitle(bookTitle)
+                .userId(MongoIds.referenceId(loan.getUser(), User::getId))
+                .userName(userName)
                 .loanDate(loan.getLoanDate())
                 .dueDate(loan.getDueDate())
                 .returnDate(loan.getReturnDate())
@@ -0,0 +1,147 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.LoanSnapshotDriftDTO;
+import com.elibrary.entity.Book;
+import com.elibrary.entity.Loan;
+import com.elibrary.entity.User;
+import com.elibrary.event.BookUpdatedEvent;
+import com.elibrary.event.UserUpdatedEvent;
+import com.elibrary.exception.BusinessException;
+import com.elibrary.exception.BusinessException.Reason;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.MongoIds;
+import com.elibrary.repository.UserRepository;
+import com.elibrary.repository.projection.BookRef;
+import com.elibrary.repository.projection.UserRef;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the loan snapshot fields in step with the books and users they were copied from.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoanSnapshotService {
+
+    private static final int CHECK_CHUNK_SIZE = 500;
+    private static final int MAX_SAMPLE_IDS = 20;
+
+    private final LoanRepository loanRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+
+    @Value("${elibrary.loans.read-model:reference}")
+    private LoanReadModel readModel = LoanReadModel.REFERENCE;
+
+    @Async
+    @EventListener
+    public void onBookUpdated(BookUpdatedEvent event) {
+        if (readModel != LoanReadModel.SNAPSHOT) {
+            return;
+        }
+        Book book = event.book();
+        long updated = loanRepository.updateBookSnapshot(book.getId(), book.getTitle(), book.getIsbn());
+        log.debug("Propagated book {} snapshot to {} loans", book.getId(), updated);
+    }
+
+    @Async
+    @EventListener
+    public void onUserUpdated(UserUpdatedEvent event) {
+        if (readModel != LoanReadModel.SNAPSHOT) {
+            return;
+        }
+        User user = event.user();
+        long updated = loanRepository.updateUserSnapshot(user.getId(), user.getName());
+        log.debug("Propagated user {} snapshot to {} loans", user.getId(), updated);
+    }
+
+    @Scheduled(cron = "${elibrary.loans.snapshot-check-cron:0 30 3 * * *}")
+    public void scheduledCheck() {
+        if (readModel != LoanReadModel.SNAPSHOT) {
+            return;
+        }
+        LoanSnapshotDriftDTO report = checkDrift(true);
+        if (report.getMissing() > 0 || report.getDrifted() > 0) {
+            log.warn("Loan snapshot check found {} missing and {} drifted snapshots, repaired {}",
+                    report.getMissing(), report.getDrifted(), report.getRepaired());
+        }
+    }
+
+    /**
+     * Compares every loan's snapshot with its current book and user, optionally rewriting stale ones.
+     */
+    public LoanSnapshotDriftDTO checkDrift(boolean repair) {
+        // Under the reference read model nothing maintains the snapshots, so every loan would report as drifted
+        if (readModel != LoanReadModel.SNAPSHOT) {
+            throw new BusinessException(Reason.INVALID_REQUEST,
+                    "Loan snapshots are only maintained with elibrary.loans.read-model=snapshot");
+        }
+        LoanSnapshotDriftDTO report = LoanSnapshotDriftDTO.builder().sampleLoanIds(new ArrayList<>()).build();
+        try (Stream<Loan> loans = loanRepository.streamAllBy()) {
+            Iterator<Loan> iterator = loans.iterator();
+            List<Loan> chunk = new ArrayList<>(CHECK_CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHECK_CHUNK_SIZE || !iterator.hasNext()) {
+                    checkChunk(chunk, repair, report);
+                    chunk.clear();
+                }
+            }
+        }
+        return report;
+    }
+
+    private void checkChunk(List<Loan> loans, boolean repair, LoanSnapshotDriftDTO report) {
+        Map<String, BookRef> books = bookRepository.findRefsByIdIn(loans.stream()
+                .map(loan -> MongoIds.referenceId(loan.getBook(), Book::getId))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(BookRef::getId, Function.identity()));
+        Map<String, UserRef> users = userRepository.findRefsByIdIn(loans.stream()
+                .map(loan -> MongoIds.referenceId(loan.getUser(), User::getId))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(UserRef::getId, Function.identity()));
+
+        for (Loan loan : loans) {
+            report.setChecked(report.getChecked() + 1);
+            BookRef book = books.get(MongoIds.referenceId(loan.getBook(), Book::getId));
+            UserRef user = users.get(MongoIds.referenceId(loan.getUser(), User::getId));
+            String title = book != null ? book.getTitle() : null;
+            String isbn = book != null ? book.getIsbn() : null;
+            String name = user != null ? user.getName() : null;
+
+            boolean missing = loan.getBookTitle() == null || loan.getUserName() == null;
+            boolean drifted = !missing && (!Objects.equals(loan.getBookTitle(), title)
+                    || !Objects.equals(loan.getBookIsbn(), isbn)
+                    || !Objects.equals(loan.getUserName(), name));
+            if (!missing && !drifted) {
+                continue;
+            }
+
+            if (missing) {
+                report.setMissing(report.getMissing() + 1);
+            } else {
+                report.setDrifted(report.getDrifted() + 1);
+            }
+            if (report.getSampleLoanIds().size() < MAX_SAMPLE_IDS) {
+                report.getSampleLoanIds().add(loan.getId());
+            }
+            if (repair && book != null && user != null) {
+                loanRepository.updateSnapshot(loan.getId(), title, isbn, name);
+                report.setRepaired(report.getRepaired() + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.elibrary.service;
+
+import com.elibrary.repository.LoanRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Materializes the OVERDUE status so overdue listings are an indexed status lookup.
+ * Each sweep only covers due dates since the previous one; the first sweep after
+ * startup covers everything, which the (status, due_date) index keeps cheap.
+ */
+@Slf4j
+@Service
+public class OverdueLoanSweeper {
+
+    private final LoanRepository loanRepository;
+    private final CirculationAnalyticsService circulationAnalytics;
+    private final Timer sweepTimer;
+    private final AtomicLong lastMarked = new AtomicLong();
+
+    // Every ACTIVE loan due before this date has been marked OVERDUE
+    private volatile LocalDate sweptBefore;
+
+    public OverdueLoanSweeper(LoanRepository loanRepository, CirculationAnalyticsService circulationAnalytics,
+            MeterRegistry meterRegistry) {
+        this.loanRepository = loanRepository;
+        this.circulationAnalytics = circulationAnalytics;
+        this.sweepTimer = Timer.builder("elibrary.loans.overdue.sweep")
+                .description("Duration of overdue loan sweeps")
+                .register(meterRegistry);
+        Gauge.builder("elibrary.loans.overdue.sweep.marked", lastMarked, AtomicLong::get)
+                .description("Loans the latest overdue sweep marked as overdue")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${elibrary.loans.overdue-sweep-interval:PT15M}")
+    public void scheduledSweep() {
+        try {
+            sweep(LocalDate.now());
+        } catch (RuntimeException ex) {
+            log.warn("Overdue loan sweep failed, will retry on the next run: {}", ex.getMessage());
+        }
+    }
+
+    public long sweep(LocalDate today) {
+        LocalDate from = sweptBefore;
+        if (from != null && !from.isBefore(today)) {
+            lastMarked.set(0);
+            return 0;
+        }
+        String sweepId = UUID.randomUUID().toString();
+        long marked = sweepTimer.record(() -> loanRepository.markOverdue(from, today, sweepId));
+        sweptBefore = today;
+        lastMarked.set(marked);
+        if (marked > 0) {
+            log.info("Marked {} loans due before {} as overdue", marked, today);
+            circulationAnalytics.recordOverdue(today, sweepId);
+        }
+        return marked;
+    }
+}
@@ -0,0 +1,119 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.BookDTO;
+import com.elibrary.dto.CategoryDTO;
+import com.elibrary.entity.Category;
+import com.elibrary.exception.ResourceNotFoundException;
+import com.elibrary.repository.MongoIds;
+import com.elibrary.repository.projection.CatalogBook;
+import com.elibrary.repository.projection.CategoryBookCount;
+import com.elibrary.repository.reactive.ReactiveBookRepository;
+import com.elibrary.repository.reactive.ReactiveCategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of the BookService and CategoryService read methods. Results are
+ * streamed as the driver delivers them, so memory stays bounded however large the catalog is.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveCatalogService {
+
+    private static final int SEARCH_FETCH_SIZE = 100;
+
+    private final ReactiveBookRepository bookRepository;
+    private final ReactiveCategoryRepository categoryRepository;
+    private final BookSearchIndex bookSearchIndex;
+
+    @Value("${elibrary.search.mode:index}")
+    private SearchMode searchMode = SearchMode.INDEX;
+
+    @Value("${elibrary.search.max-results:500}")
+    private int maxSearchResults = 500;
+
+    public Flux<BookDTO> streamAllBooks() {
+        return withCategoryNames(bookRepository.findAll());
+    }
+
+    public Mono<BookDTO> getBookById(String id) {
+        return bookRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Book not found with id: " + id)))
+                .flatMap(book -> categoryName(book).map(name -> toDTO(book, name)).defaultIfEmpty(toDTO(book, null)));
+    }
+
+    public Flux<BookDTO> searchBooks(String keyword) {
+        if (searchMode == SearchMode.INDEX && bookSearchIndex.isReady()) {
+            // Ranked ids are fetched a page at a time and re-sorted within the page to keep the ranking
+            List<String> rankedIds = bookSearchIndex.search(keyword, maxSearchResults);
+            return withCategoryNames(Flux.fromIterable(rankedIds)
+                    .buffer(SEARCH_FETCH_SIZE)
+                    .concatMap(ids -> bookRepository.findAllById(ids)
+                            .collectMap(CatalogBook::getId)
+                            .flatMapIterable(books -> ids.stream()
+                                    .map(books::get)
+                                    .filter(Objects::nonNull)
+                                    .collect(Collectors.toList()))));
+        }
+        return withCategoryNames(bookRepository.searchBooks(keyword));
+    }
+
+    public Flux<BookDTO> getAvailableBooks() {
+        return withCategoryNames(bookRepository.findAvailableBooks());
+    }
+
+    public Flux<BookDTO> getBooksByCategory(String categoryId) {
+        return withCategoryNames(bookRepository.findByCategoryId(MongoIds.toStored(categoryId)));
+    }
+
+    public Flux<CategoryDTO> streamAllCategories() {
+        return bookRepository.countBooksGroupedByCategory()
+                .filter(count -> count.getCategoryId() != null)
+                .collectMap(CategoryBookCount::getCategoryId, CategoryBookCount::getCount)
+                .flatMapMany(counts -> categoryRepository.findAll()
+                        .map(category -> CategoryDTO.builder()
+                                .id(category.getId())
+                                .name(category.getName())
+                                .description(category.getDescription())
+                                .bookCount(counts.getOrDefault(category.getId(), 0L).intValue())
+                                .build()));
+    }
+
+    // Categories are few, so their names are loaded once per request instead of once per book
+    private Flux<BookDTO> withCategoryNames(Flux<CatalogBook> books) {
+        return categoryRepository.findAll()
+                .collectMap(Category::getId, Category::getName)
+                .flatMapMany(names -> books.map(book -> toDTO(book, names.get(categoryId(book)))));
+    }
+
+    private Mono<String> categoryName(CatalogBook book) {
+        String categoryId = categoryId(book);
+        return categoryId == null ? Mono.empty() : categoryRepository.findById(categoryId).map(Category::getName);
+    }
+
+    private static String categoryId(CatalogBook book) {
+        return book.getCategory() != null ? String.valueOf(book.getCategory().getId()) : null;
+    }
+
+    private static BookDTO toDTO(CatalogBook book, String categoryName) {
+        return BookDTO.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .description(book.getDescription())
+                .publishedYear(book.getPublishedYear())
+                .available(book.getAvailable())
+                .totalCopies(book.getTotalCopies())
+                .availableCopies(book.getAvailableCopies())
+                .categoryId(categoryId(book))
+                .categoryName(categoryName)
+                .build();
+    }
+}
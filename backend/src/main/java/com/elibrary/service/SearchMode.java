@@ -0,0 +1,8 @@
+package com.elibrary.service;
+
+public enum SearchMode {
+    // Answer from the in-process inverted index, falling back to regex while it warms up
+    INDEX,
+    // Unanchored case-insensitive regex over title and author in Mongo
+    REGEX
+}
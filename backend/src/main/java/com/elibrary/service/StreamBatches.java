@@ -0,0 +1,42 @@
+package com.elibrary.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Maps a cursor-backed stream in fixed-size chunks so per-row lookups can be
+ * batched while the stream is still consumed lazily.
+ */
+final class StreamBatches {
+
+    private StreamBatches() {
+    }
+
+    static <T, R> Stream<R> mapInChunks(Stream<T> source, int chunkSize, Function<List<T>, List<R>> mapper) {
+        Iterator<T> iterator = source.iterator();
+        Iterator<List<T>> chunks = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                List<T> chunk = new ArrayList<>(chunkSize);
+                while (iterator.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(iterator.next());
+                }
+                return chunk;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED), false)
+                .flatMap(chunk -> mapper.apply(chunk).stream())
+                .onClose(source::close);
+    }
+}
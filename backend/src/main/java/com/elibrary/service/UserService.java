@@ -1,98 +1,110 @@
 package com.elibrary.service;
 
+import com.elibrary.dto.CursorPageDTO;
 import com.elibrary.dto.UserDTO;
+import com.elibrary.entity.Loan;
 import com.elibrary.entity.User;
+import com.elibrary.event.UserUpdatedEvent;
 import com.elibrary.exception.BusinessException;
+import com.elibrary.exception.BusinessException.Reason;
 import com.elibrary.exception.ResourceNotFoundException;
 import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.MongoIds;
 import com.elibrary.repository.UserRepository;
+import com.elibrary.repository.projection.UserLoanCount;
+import com.elibrary.repository.projection.UserSummary;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class UserService {
 
+    private static final Set<String> PAGE_SORT_KEYS = Set.of("name", "email");
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final UserRepository userRepository;
     private final LoanRepository loanRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PasswordHasher passwordHasher;
 
     public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::toDTO)
+        Map<String, Long> activeLoans = toCountMap(
+                loanRepository.countAllByStatusInGroupedByUser(Loan.LoanStatus.UNRETURNED));
+        return userRepository.findSummariesBy().stream()
+                .map(user -> toDTO(user, activeLoans.getOrDefault(user.getId(), 0L)))
                 .collect(Collectors.toList());
     }
 
+    public CursorPageDTO<UserDTO> getUsersPage(String cursor, int size, String sort) {
+        Sort order = CursorPaging.sort(sort, PAGE_SORT_KEYS);
+        Window<UserSummary> window = userRepository.findSummariesBy(CursorPaging.position(cursor, order), order,
+                CursorPaging.limit(size));
+        return CursorPaging.page(window, order, toDTOs(window.getContent()));
+    }
+
+    public Stream<UserDTO> streamAllUsers() {
+        return StreamBatches.mapInChunks(userRepository.streamSummariesBy(), STREAM_CHUNK_SIZE, this::toDTOs);
+    }
+
     public UserDTO getUserById(String id) {
         return toDTO(findUserById(id));
     }
 
     public List<UserDTO> searchUsers(String name) {
-        return userRepository.findByNameContainingIgnoreCase(name).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(userRepository.findSummariesByNameContainingIgnoreCase(name));
     }
 
     public UserDTO createUser(UserDTO dto) {
         if (userRepository.existsByEmail(dto.getEmail())) {
-            throw new BusinessException("User with email " + dto.getEmail() + " already exists");
+            throw new BusinessException(Reason.DUPLICATE, "User with email " + dto.getEmail() + " already exists");
         }
 
-        System.out.println("DEBUG: Creating user with email: " + dto.getEmail());
-        System.out.println("DEBUG: Password from DTO: "
-                + (dto.getPassword() != null ? "***" + dto.getPassword().length() + " chars***" : "NULL"));
-
         User user = toEntity(dto);
-        System.out.println("DEBUG: Password after toEntity: "
-                + (user.getPassword() != null ? "***" + user.getPassword().length() + " chars***" : "NULL"));
-
-        // In a real app, hash the password here
-        user.setPassword(dto.getPassword());
-        System.out.println("DEBUG: Password after setPassword: "
-                + (user.getPassword() != null ? "***" + user.getPassword().length() + " chars***" : "NULL"));
-
+        user.setPassword(passwordHasher.hash(dto.getPassword()));
         User savedUser = userRepository.save(user);
-        System.out.println("DEBUG: Password after save: "
-                + (savedUser.getPassword() != null ? "***" + savedUser.getPassword().length() + " chars***" : "NULL"));
+        log.info("Created user {}", savedUser.getId());
 
         return toDTO(savedUser);
     }
 
     public UserDTO login(String email, String password) {
         User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BusinessException("Invalid email or password"));
+                .orElseThrow(() -> new BusinessException(Reason.INVALID_CREDENTIALS, "Invalid email or password"));
 
-        // In a real app, verify hash here
-        if (!user.getPassword().equals(password)) {
-            throw new BusinessException("Invalid email or password");
+        String storedPassword = user.getPassword();
+        if (!passwordHasher.matches(password, storedPassword)) {
+            throw new BusinessException(Reason.INVALID_CREDENTIALS, "Invalid email or password");
+        }
+        if (passwordHasher.needsRehash(storedPassword)) {
+            // A concurrent reset wins; its hash is already current
+            if (userRepository.replacePassword(user.getId(), storedPassword, passwordHasher.hash(password))) {
+                log.debug("Rehashed password for user {}", user.getId());
+            }
         }
 
         return toDTO(user);
     }
 
     public UserDTO resetPassword(String email, String newPassword) {
-        System.out.println("DEBUG RESET: Email: " + email);
-        System.out.println("DEBUG RESET: New password received: "
-                + (newPassword != null ? "***" + newPassword.length() + " chars***" : "NULL"));
-
         User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BusinessException("User with email " + email + " not found"));
-
-        System.out.println("DEBUG RESET: User found: " + user.getEmail());
-        System.out.println("DEBUG RESET: Old password: "
-                + (user.getPassword() != null ? "***" + user.getPassword().length() + " chars***" : "NULL"));
-
-        // In a real app, hash the password here
-        user.setPassword(newPassword);
-        System.out.println("DEBUG RESET: Password after setPassword: "
-                + (user.getPassword() != null ? "***" + user.getPassword().length() + " chars***" : "NULL"));
+                .orElseThrow(() -> new BusinessException(Reason.NOT_FOUND, "User with email " + email + " not found"));
 
+        user.setPassword(passwordHasher.hash(newPassword));
         User savedUser = userRepository.save(user);
-        System.out.println("DEBUG RESET: Password after save: "
-                + (savedUser.getPassword() != null ? "***" + savedUser.getPassword().length() + " chars***" : "NULL"));
+        log.info("Password reset for user {}", savedUser.getId());
 
         return toDTO(savedUser);
     }
@@ -103,14 +115,17 @@ public class UserService {
         user.setPhone(dto.getPhone());
         user.setAddress(dto.getAddress());
         user.setActive(dto.getActive());
-        return toDTO(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserUpdatedEvent(savedUser));
+        return toDTO(savedUser);
     }
 
     public void deleteUser(String id) {
         User user = findUserById(id);
-        long activeLoans = loanRepository.countByUser_IdAndStatus(id, com.elibrary.entity.Loan.LoanStatus.ACTIVE);
+        long activeLoans = loanRepository.countByUser_IdAndStatusIn(MongoIds.toStored(id),
+                Loan.LoanStatus.UNRETURNED);
         if (activeLoans > 0) {
-            throw new BusinessException("Cannot delete user with active loans");
+            throw new BusinessException(Reason.IN_USE, "Cannot delete user with active loans");
         }
         userRepository.delete(user);
     }
@@ -120,9 +135,33 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
     }
 
+    private List<UserDTO> toDTOs(List<UserSummary> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        List<String> userIds = users.stream().map(UserSummary::getId).collect(Collectors.toList());
+        Map<String, Long> activeLoans = toCountMap(
+                loanRepository.countByUserIdsAndStatusIn(MongoIds.toStored(userIds), Loan.LoanStatus.UNRETURNED));
+        return users.stream()
+                .map(user -> toDTO(user, activeLoans.getOrDefault(user.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Long> toCountMap(List<UserLoanCount> counts) {
+        return counts.stream()
+                .filter(count -> count.getUserId() != null)
+                .collect(Collectors.toMap(UserLoanCount::getUserId, UserLoanCount::getCount));
+    }
+
+    // Single users go through the same mapping as the listings
     private UserDTO toDTO(User user) {
-        int activeLoans = (int) loanRepository.countByUser_IdAndStatus(user.getId(),
-                com.elibrary.entity.Loan.LoanStatus.ACTIVE);
+        UserSummary summary = new UserSummary(user.getId(), user.getName(), user.getEmail(), user.getPhone(),
+                user.getAddress(), user.getMembershipDate(), user.getActive());
+        return toDTO(summary, loanRepository.countByUser_IdAndStatusIn(MongoIds.toStored(user.getId()),
+                Loan.LoanStatus.UNRETURNED));
+    }
+
+    private UserDTO toDTO(UserSummary user, long activeLoans) {
         return UserDTO.builder()
                 .id(user.getId())
                 .name(user.getName())
@@ -131,7 +170,7 @@ public class UserService {
                 .address(user.getAddress())
                 .membershipDate(user.getMembershipDate())
                 .active(user.getActive())
-                .activeLoans(activeLoans)
+                .activeLoans((int) activeLoans)
                 .build();
     }
 
@@ -143,6 +182,7 @@ public class UserService {
                 .phone(dto.getPhone())
                 .address(dto.getAddress())
                 .active(true)
+                .activeLoans(0)
                 .build();
     }
 }
@@ -4,7 +4,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+// No Mongo is running for this test, and the startup migrations need one
+@SpringBootTest(properties = "elibrary.migrations.enabled=false")
 @ActiveProfiles("dev")
 class ELibraryApplicationTests {
     
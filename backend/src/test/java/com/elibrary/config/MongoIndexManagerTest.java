@@ -0,0 +1,173 @@
+package com.elibrary.config;
+
+import com.elibrary.entity.Loan;
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.LoanRepositoryImpl;
+import com.elibrary.repository.MongoIds;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MongoIndexManagerTest {
+
+    @Test
+    void usesCollectionScan_ShouldFindCollScanInWinningPlanOnly() {
+        Document indexed = Document.parse("{ 'queryPlanner': { 'winningPlan': { 'stage': 'FETCH', "
+                + "'inputStage': { 'stage': 'IXSCAN', 'indexName': 'user_status' } }, "
+                + "'rejectedPlans': [ { 'stage': 'COLLSCAN' } ] } }");
+        Document scanned = Document.parse("{ 'queryPlanner': { 'winningPlan': { 'stage': 'SUBPLAN', "
+                + "'inputStage': { 'stage': 'OR', 'inputStages': [ { 'stage': 'IXSCAN' }, { 'stage': 'COLLSCAN' } ] } }, "
+                + "'rejectedPlans': [] } }");
+
+        assertFalse(MongoIndexManager.usesCollectionScan(indexed));
+        assertTrue(MongoIndexManager.usesCollectionScan(scanned));
+    }
+
+    @Test
+    void loanIndexes_ShouldLeadWithTheFieldsOfEveryQueryShape() {
+        MappingMongoConverter converter = converter();
+        List<Document> keys = new ArrayList<>();
+        for (IndexDefinition index : new MongoPersistentEntityIndexResolver(converter.getMappingContext())
+                .resolveIndexFor(Loan.class)) {
+            keys.add(index.getIndexKeys());
+        }
+
+        MongoIndexManager.loanQueryShapes(converter).forEach((query, filter) -> assertTrue(
+                keys.stream().anyMatch(key -> key.keySet().iterator().next().equals(filter.keySet().iterator().next())),
+                query + " has no index starting with " + filter.keySet().iterator().next()));
+    }
+
+    @Test
+    void loanQueryShapes_ShouldMatchTheFiltersTheRepositorySends() {
+        MongoCollection<Document> collection = mock(MongoCollection.class, new EmptyResults());
+        MongoDatabaseFactory databaseFactory = mock(MongoDatabaseFactory.class, RETURNS_DEEP_STUBS);
+        when(databaseFactory.getMongoDatabase().getCollection(anyString(), eq(Document.class))).thenReturn(collection);
+        when(databaseFactory.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(databaseFactory.getMongoDatabase().getCodecRegistry())
+                .thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(databaseFactory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+        MappingMongoConverter converter = converter();
+        MongoTemplate template = new MongoTemplate(databaseFactory, converter);
+        LoanRepository repository = new MongoRepositoryFactory(template).getRepository(LoanRepository.class,
+                RepositoryFragments.just(new LoanRepositoryImpl(template)));
+
+        Object id = MongoIds.toStored(new ObjectId().toHexString());
+        LocalDate today = LocalDate.now();
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findByUser_Id", () -> repository.findByUser_Id(id));
+        calls.put("findByUser_IdAndStatus", () -> repository.findByUser_IdAndStatus(id, Loan.LoanStatus.ACTIVE));
+        calls.put("countByUser_IdAndStatusIn", () -> repository.countByUser_IdAndStatusIn(id,
+                Loan.LoanStatus.UNRETURNED));
+        calls.put("countByUserIdsAndStatusIn", () -> repository.countByUserIdsAndStatusIn(
+                List.of(id), Loan.LoanStatus.UNRETURNED));
+        calls.put("findByBook_Id", () -> repository.findByBook_Id(id));
+        calls.put("findByBook_IdAndStatus", () -> repository.findByBook_IdAndStatus(id, Loan.LoanStatus.ACTIVE));
+        calls.put("findByStatus", () -> repository.findByStatus(Loan.LoanStatus.OVERDUE));
+        calls.put("findByStatusIn", () -> repository.findByStatusIn(Loan.LoanStatus.UNRETURNED));
+        calls.put("findByStatusAndDueDateBefore", () -> repository.findByStatusAndDueDateBefore(
+                Loan.LoanStatus.ACTIVE, today));
+        calls.put("countByOverdueSweepIdGroupedByBook", () -> repository.countByOverdueSweepIdGroupedByBook("sweep"));
+        // The two updates of one sweep, first-time marks and then loans that were overdue before
+        calls.put("markOverdue", () -> repository.markOverdue(today.minusDays(1), today, "sweep"));
+
+        Map<String, Document> shapes = MongoIndexManager.loanQueryShapes(converter);
+        calls.forEach((query, call) -> {
+            clearInvocations(collection);
+            call.run();
+            List<Document> sent = sentFilters(collection);
+            List<Document> expected = query.equals("markOverdue")
+                    ? List.of(shapes.get("markOverdue"), shapes.get("markOverdue (again)"))
+                    : List.of(shapes.get(query));
+            assertEquals(expected.stream().map(MongoIndexManagerTest::shape).toList(),
+                    sent.stream().map(MongoIndexManagerTest::shape).toList(), query);
+        });
+        Set<String> covered = new HashSet<>(calls.keySet());
+        covered.add("markOverdue (again)");
+        assertEquals(shapes.keySet(), covered);
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    // The filter of every find, count, update and aggregation $match sent to the collection
+    private static List<Document> sentFilters(MongoCollection<Document> collection) {
+        List<Document> filters = new ArrayList<>();
+        for (Invocation invocation : mockingDetails(collection).getInvocations()) {
+            Object first = invocation.getArguments().length > 0 ? invocation.getArgument(0) : null;
+            if (first instanceof Document filter) {
+                filters.add(filter);
+            } else if (first instanceof List<?> pipeline && invocation.getMethod().getName().equals("aggregate")) {
+                filters.add((Document) ((Document) pipeline.get(0)).get("$match"));
+            }
+        }
+        return filters;
+    }
+
+    // Field names, operators and value types, without the values themselves
+    private static Object shape(Object value) {
+        if (value instanceof Document document) {
+            Map<String, Object> shape = new LinkedHashMap<>();
+            document.forEach((key, nested) -> shape.put(key, shape(nested)));
+            return shape;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(MongoIndexManagerTest::shape).toList();
+        }
+        return value == null ? null : value.getClass().getSimpleName();
+    }
+
+    // Lets the template run against a collection that holds nothing: builders return themselves,
+    // cursors are empty and results are zero
+    private static class EmptyResults implements Answer<Object> {
+
+        @Override
+        public Object answer(InvocationOnMock invocation) throws Throwable {
+            Class<?> type = invocation.getMethod().getReturnType();
+            if (type.isInstance(invocation.getMock())) {
+                return invocation.getMock();
+            }
+            if (invocation.getMethod().getName().equals("into")) {
+                return invocation.getArgument(0);
+            }
+            if (type.isInterface() || (Modifier.isAbstract(type.getModifiers()) && !type.isPrimitive())) {
+                return mock(type, this);
+            }
+            return RETURNS_DEFAULTS.answer(invocation);
+        }
+    }
+}
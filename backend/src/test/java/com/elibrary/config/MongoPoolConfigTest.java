@@ -0,0 +1,24 @@
+package com.elibrary.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.connection.ConnectionPoolSettings;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoPoolConfigTest {
+
+    @Test
+    void connectionPoolCustomizer_ShouldApplyConfiguredPoolSettings() {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder();
+
+        new MongoPoolConfig().connectionPoolCustomizer(200, 20, 8, Duration.ofSeconds(5)).customize(builder);
+
+        ConnectionPoolSettings pool = builder.build().getConnectionPoolSettings();
+        assertEquals(200, pool.getMaxSize());
+        assertEquals(20, pool.getMinSize());
+        assertEquals(8, pool.getMaxConnecting());
+        assertEquals(5000, pool.getMaxWaitTime(TimeUnit.MILLISECONDS));
+    }
+}
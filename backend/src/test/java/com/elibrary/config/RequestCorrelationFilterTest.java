@@ -0,0 +1,41 @@
+package com.elibrary.config;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCorrelationFilterTest {
+
+    private final RequestCorrelationFilter filter = new RequestCorrelationFilter();
+
+    @Test
+    void doFilter_ShouldReuseIncomingIdAndClearItAfterwards() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader(RequestCorrelationFilter.HEADER, "abc-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> seen.set(MDC.get(RequestCorrelationFilter.MDC_KEY)));
+
+        assertEquals("abc-123", seen.get());
+        assertEquals("abc-123", response.getHeader(RequestCorrelationFilter.HEADER));
+        assertNull(MDC.get(RequestCorrelationFilter.MDC_KEY));
+    }
+
+    @Test
+    void doFilter_ShouldReplaceMalformedIncomingId() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader(RequestCorrelationFilter.HEADER, "forged\nERROR line");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> seen.set(MDC.get(RequestCorrelationFilter.MDC_KEY)));
+
+        assertNotEquals("forged\nERROR line", seen.get());
+        assertEquals(36, seen.get().length());
+        assertEquals(seen.get(), response.getHeader(RequestCorrelationFilter.HEADER));
+    }
+}
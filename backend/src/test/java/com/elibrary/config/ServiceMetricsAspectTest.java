@@ -0,0 +1,99 @@
+package com.elibrary.config;
+
+import com.elibrary.entity.Category;
+import com.elibrary.exception.BusinessException;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.CategoryRepository;
+import com.elibrary.repository.reactive.ReactiveBookRepository;
+import com.elibrary.repository.reactive.ReactiveCategoryRepository;
+import com.elibrary.service.BookSearchIndex;
+import com.elibrary.service.CatalogCache;
+import com.elibrary.service.CategoryService;
+import com.elibrary.service.ReactiveCatalogService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Flux;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ServiceMetricsAspectTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final ReactiveBookRepository reactiveBookRepository = mock(ReactiveBookRepository.class);
+    private final ReactiveCategoryRepository reactiveCategoryRepository = mock(ReactiveCategoryRepository.class);
+
+    private CategoryService categoryService;
+    private ReactiveCatalogService catalogService;
+
+    @BeforeEach
+    void setUp() {
+        categoryService = proxy(new CategoryService(categoryRepository, bookRepository, mock(CatalogCache.class)));
+        catalogService = proxy(new ReactiveCatalogService(reactiveBookRepository, reactiveCategoryRepository,
+                mock(BookSearchIndex.class)));
+    }
+
+    @Test
+    void time_ShouldTagSuccessfulCalls() {
+        when(categoryRepository.findAllWithBookCounts()).thenReturn(List.of());
+
+        categoryService.getAllCategories();
+
+        assertEquals(1, registry.get(ServiceMetricsAspect.SERVICE_TIMER)
+                .tags("service", "CategoryService", "method", "getAllCategories", "outcome", "success",
+                        "reason", "none")
+                .timer().count());
+    }
+
+    @Test
+    void time_ShouldTagBusinessErrorsWithReason() {
+        when(categoryRepository.findById("cat-1")).thenReturn(Optional.of(Category.builder().id("cat-1").build()));
+        when(bookRepository.existsByCategory_Id("cat-1")).thenReturn(true);
+
+        assertThrows(BusinessException.class, () -> categoryService.deleteCategory("cat-1"));
+
+        assertEquals(1, registry.get(ServiceMetricsAspect.SERVICE_TIMER)
+                .tags("method", "deleteCategory", "outcome", "business_error", "reason", "in_use")
+                .timer().count());
+        assertEquals(1.0, registry.get(ServiceMetricsAspect.BUSINESS_ERRORS)
+                .tags("method", "deleteCategory", "reason", "in_use")
+                .counter().count());
+    }
+
+    @Test
+    void time_ShouldTimeFluxPerSubscription() {
+        when(reactiveBookRepository.countBooksGroupedByCategory()).thenReturn(Flux.empty());
+        when(reactiveCategoryRepository.findAll()).thenReturn(Flux.empty());
+
+        Flux<?> categories = catalogService.streamAllCategories();
+        assertTrue(registry.find(ServiceMetricsAspect.SERVICE_TIMER).timers().isEmpty());
+        categories.blockLast();
+        categories.blockLast();
+
+        assertEquals(2, registry.get(ServiceMetricsAspect.SERVICE_TIMER)
+                .tags("method", "streamAllCategories", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void time_ShouldRecordCancelledStreams() {
+        when(reactiveBookRepository.countBooksGroupedByCategory()).thenReturn(Flux.empty());
+        when(reactiveCategoryRepository.findAll()).thenReturn(Flux.never());
+
+        catalogService.streamAllCategories().subscribe().dispose();
+
+        assertEquals(1, registry.get(ServiceMetricsAspect.SERVICE_TIMER)
+                .tags("method", "streamAllCategories", "outcome", "cancelled").timer().count());
+    }
+
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(registry));
+        return factory.getProxy();
+    }
+}
@@ -1,6 +1,12 @@
 package com.elibrary.controller;
 
 import com.elibrary.dto.BookDTO;
+import com.elibrary.dto.BookFacetPageDTO;
+import com.elibrary.dto.BookImportReportDTO;
+import com.elibrary.dto.BookSummaryDTO;
+import com.elibrary.dto.FacetCountDTO;
+import com.elibrary.service.BookImportFormat;
+import com.elibrary.service.BookImportService;
 import com.elibrary.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +20,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -27,11 +34,16 @@ class BookControllerTest {
         @MockBean
         private BookService bookService;
 
+        @MockBean
+        private BookImportService bookImportService;
+
         @Autowired
         private ObjectMapper objectMapper;
 
         private BookDTO testBookDTO;
 
+        private BookSummaryDTO testSummaryDTO;
+
         @BeforeEach
         void setUp() {
                 testBookDTO = BookDTO.builder()
@@ -46,17 +58,27 @@ class BookControllerTest {
                                 .categoryId("cat-1")
                                 .categoryName("Fiction")
                                 .build();
+
+                testSummaryDTO = BookSummaryDTO.builder()
+                                .id("book-1")
+                                .title("The Great Gatsby")
+                                .author("F. Scott Fitzgerald")
+                                .isbn("978-0743273565")
+                                .categoryId("cat-1")
+                                .categoryName("Fiction")
+                                .build();
         }
 
         @Test
         void getAllBooks_ShouldReturnListOfBooks() throws Exception {
-                List<BookDTO> books = Arrays.asList(testBookDTO);
+                List<BookSummaryDTO> books = Arrays.asList(testSummaryDTO);
                 when(bookService.getAllBooks()).thenReturn(books);
 
                 mockMvc.perform(get("/api/books"))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$[0].title").value("The Great Gatsby"))
-                                .andExpect(jsonPath("$[0].author").value("F. Scott Fitzgerald"));
+                                .andExpect(jsonPath("$[0].author").value("F. Scott Fitzgerald"))
+                                .andExpect(jsonPath("$[0].description").doesNotExist());
         }
 
         @Test
@@ -95,10 +117,38 @@ class BookControllerTest {
 
         @Test
         void searchBooks_ShouldReturnMatchingBooks() throws Exception {
-                when(bookService.searchBooks("Gatsby")).thenReturn(Arrays.asList(testBookDTO));
+                when(bookService.searchBooks("Gatsby")).thenReturn(Arrays.asList(testSummaryDTO));
 
                 mockMvc.perform(get("/api/books/search?keyword=Gatsby"))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$[0].title").value("The Great Gatsby"));
         }
+
+        @Test
+        void facetSearch_ShouldBindFiltersAndReturnFacets() throws Exception {
+                when(bookService.facetSearch("gatsby", "cat-1", null, 1920, true, 0, 50, "title"))
+                                .thenReturn(BookFacetPageDTO.builder()
+                                                .items(List.of(testSummaryDTO))
+                                                .total(1)
+                                                .categories(List.of(new FacetCountDTO("cat-1", "Fiction", 1)))
+                                                .build());
+
+                mockMvc.perform(get("/api/books/facets?keyword=gatsby&categoryId=cat-1&decade=1920&available=true"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].title").value("The Great Gatsby"))
+                                .andExpect(jsonPath("$.categories[0].label").value("Fiction"))
+                                .andExpect(jsonPath("$.categories[0].count").value(1));
+        }
+
+        @Test
+        void importBooks_WithCsvBody_ShouldReturnReport() throws Exception {
+                when(bookImportService.importBooks(any(), eq(BookImportFormat.CSV)))
+                                .thenReturn(BookImportReportDTO.builder().received(1).imported(1).build());
+
+                mockMvc.perform(post("/api/books/import")
+                                .contentType("text/csv")
+                                .content("title,author,isbn\nEmma,Jane Austen,978-0141439587\n"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.imported").value(1));
+        }
 }
@@ -0,0 +1,99 @@
+package com.elibrary.service;
+
+import com.elibrary.entity.Book;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.projection.BookLabel;
+import com.elibrary.repository.projection.BookLoanCount;
+import com.elibrary.service.BookAutocompleteIndex.Field;
+import com.elibrary.service.BookAutocompleteIndex.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookAutocompleteIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @InjectMocks
+    private BookAutocompleteIndex autocompleteIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.streamLabelsBy()).thenReturn(Stream.of(
+                new BookLabel("book-1", "The Great Gatsby", "F. Scott Fitzgerald"),
+                new BookLabel("book-2", "Great Expectations", "Charles Dickens"),
+                new BookLabel("book-3", "Oliver Twist", "Charles Dickens"),
+                new BookLabel("book-4", "Cien años de soledad", "Gabriel García Márquez")));
+        when(loanRepository.countAllGroupedByBook()).thenReturn(List.of(
+                new BookLoanCount("book-1", 3),
+                new BookLoanCount("book-2", 7),
+                new BookLoanCount("book-3", 1)));
+        autocompleteIndex.rebuild();
+    }
+
+    @Test
+    void suggest_ShouldCompleteAnyWordStartMostBorrowedFirst() {
+        List<Suggestion> suggestions = autocompleteIndex.suggest("Gre", 10);
+
+        assertEquals(List.of("Great Expectations", "The Great Gatsby"), texts(suggestions));
+        assertEquals(List.of("book-2"), suggestions.get(0).bookIds());
+        assertEquals(7, suggestions.get(0).loans());
+    }
+
+    @Test
+    void suggest_ShouldGroupAuthorsAndIgnoreCaseAndAccents() {
+        List<Suggestion> authors = autocompleteIndex.suggest("dickens", 10);
+        assertEquals(1, authors.size());
+        assertEquals(Field.AUTHOR, authors.get(0).field());
+        assertEquals(List.of("book-2", "book-3"), authors.get(0).bookIds());
+        assertEquals(8, authors.get(0).loans());
+
+        assertEquals(List.of("Gabriel García Márquez"), texts(autocompleteIndex.suggest("GARCIA", 10)));
+    }
+
+    @Test
+    void suggest_ShouldTolerateTyposOnLongerPrefixesButRankExactMatchesFirst() {
+        assertEquals(List.of("The Great Gatsby"), texts(autocompleteIndex.suggest("gatbsy", 10)));
+        assertEquals(List.of("F. Scott Fitzgerald"), texts(autocompleteIndex.suggest("fitzjer", 10)));
+        // Two characters allow no edit
+        assertEquals(List.of(), autocompleteIndex.suggest("gz", 10));
+
+        List<String> olive = texts(autocompleteIndex.suggest("olive", 10));
+        assertEquals("Oliver Twist", olive.get(0));
+    }
+
+    @Test
+    void index_ShouldUpdateSuggestionsIncrementally() {
+        autocompleteIndex.index(Book.builder().id("book-3").title("A Tale of Two Cities").author("Charles Dickens")
+                .build());
+        autocompleteIndex.remove("book-2");
+
+        assertEquals(List.of(), texts(autocompleteIndex.suggest("oliver", 10)));
+        assertEquals(List.of("The Great Gatsby"), texts(autocompleteIndex.suggest("great", 10)));
+        assertEquals(List.of("A Tale of Two Cities"), texts(autocompleteIndex.suggest("tale", 10)));
+        assertEquals(List.of("book-3"), autocompleteIndex.suggest("dickens", 10).get(0).bookIds());
+    }
+
+    @Test
+    void suggest_ShouldHonourLimit() {
+        assertEquals(1, autocompleteIndex.suggest("g", 1).size());
+        assertEquals(List.of(), autocompleteIndex.suggest("  ", 10));
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+}
@@ -0,0 +1,105 @@
+package com.elibrary.service;
+
+import com.elibrary.entity.Book;
+import com.elibrary.entity.Category;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.projection.BookAvailability;
+import com.mongodb.DBRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookAvailabilityIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private BookAvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.streamAvailabilityByOrderByIdAsc()).thenReturn(Stream.of(
+                new BookAvailability("book-1", 2, new DBRef("categories", "fiction"), 1L),
+                new BookAvailability("book-2", 0, new DBRef("categories", "fiction"), 1L),
+                new BookAvailability("book-3", 1, new DBRef("categories", "history"), 1L),
+                new BookAvailability("book-4", 1, null, 1L)));
+        availabilityIndex.rebuild();
+    }
+
+    @Test
+    void availableIds_ShouldIntersectAvailabilityWithCategory() {
+        assertTrue(availabilityIndex.isReady());
+        assertEquals(List.of("book-1", "book-3", "book-4"), availabilityIndex.availableIds(null, 0, 50));
+        assertEquals(List.of("book-1"), availabilityIndex.availableIds("fiction", 0, 50));
+        assertEquals(List.of(), availabilityIndex.availableIds("poetry", 0, 50));
+    }
+
+    @Test
+    void availableIds_ShouldReturnTheRequestedPage() {
+        assertEquals(List.of("book-3"), availabilityIndex.availableIds(null, 1, 1));
+        assertEquals(List.of("book-3", "book-4"), availabilityIndex.availableIds(null, 1, 5));
+        assertEquals(List.of(), availabilityIndex.availableIds(null, 3, 5));
+        assertEquals(3, availabilityIndex.countAvailable(null));
+        assertEquals(1, availabilityIndex.countAvailable("fiction"));
+        assertEquals(0, availabilityIndex.countAvailable("poetry"));
+    }
+
+    @Test
+    void index_ShouldFollowCopyCountAndCategoryChanges() {
+        Category history = Category.builder().id("history").name("History").build();
+        availabilityIndex.index(Book.builder().id("book-2").availableCopies(1).category(history).version(2L).build());
+        availabilityIndex.setAvailable("book-1", false, 2L);
+        availabilityIndex.remove("book-3");
+
+        assertEquals(List.of(), availabilityIndex.availableIds("fiction", 0, 50));
+        assertEquals(List.of("book-2"), availabilityIndex.availableIds("history", 0, 50));
+        assertEquals(List.of("book-2", "book-4"), availabilityIndex.availableIds(null, 0, 50));
+    }
+
+    @Test
+    void index_ShouldIgnoreUpdatesOlderThanTheAppliedVersion() {
+        Category fiction = Category.builder().id("fiction").name("Fiction").build();
+        // A return (version 3) lands before the checkout (version 2) that took the last copy
+        availabilityIndex.setAvailable("book-1", true, 3L);
+        availabilityIndex.index(Book.builder().id("book-1").availableCopies(0).category(fiction).version(2L).build());
+
+        assertEquals(List.of("book-1"), availabilityIndex.availableIds("fiction", 0, 50));
+
+        availabilityIndex.index(Book.builder().id("book-1").availableCopies(0).category(fiction).version(4L).build());
+        assertEquals(List.of(), availabilityIndex.availableIds("fiction", 0, 50));
+    }
+
+    @Test
+    void refresh_ShouldApplyTheCurrentStateFromMongo() {
+        when(bookRepository.findAvailabilityByIdIn(Set.of("book-2"))).thenReturn(List.of(
+                new BookAvailability("book-2", 1, new DBRef("categories", "fiction"), 2L)));
+
+        availabilityIndex.refresh(Set.of("book-2"));
+
+        assertEquals(List.of("book-1", "book-2"), availabilityIndex.availableIds("fiction", 0, 50));
+    }
+
+    @Test
+    void rebuild_ShouldCountBooksThatDriftedFromMongo() {
+        // An update the index never saw, e.g. one made directly in the database
+        when(bookRepository.streamAvailabilityByOrderByIdAsc()).thenAnswer(invocation -> Stream.of(
+                new BookAvailability("book-1", 0, new DBRef("categories", "fiction"), 1L),
+                new BookAvailability("book-2", 0, new DBRef("categories", "fiction"), 1L),
+                new BookAvailability("book-3", 1, new DBRef("categories", "history"), 1L),
+                new BookAvailability("book-4", 1, null, 1L)));
+
+        assertEquals(1, availabilityIndex.rebuild());
+        assertEquals(List.of("book-3", "book-4"), availabilityIndex.availableIds(null, 0, 50));
+        assertEquals(0, availabilityIndex.rebuild());
+    }
+}
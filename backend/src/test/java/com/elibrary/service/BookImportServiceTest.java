@@ -0,0 +1,138 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.BookImportReportDTO;
+import com.elibrary.entity.Book;
+import com.elibrary.entity.Category;
+import com.elibrary.exception.BusinessException;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.BookRepositoryCustom;
+import com.elibrary.repository.CategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private BookAutocompleteIndex autocompleteIndex;
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    void setUp() {
+        bookImportService = new BookImportService(bookRepository, categoryRepository, bookSearchIndex,
+                availabilityIndex, autocompleteIndex, catalogCache, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        when(categoryRepository.findAll()).thenReturn(List.of(Category.builder().id("cat-1").name("Fiction").build()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importBooks_FromCsv_ShouldSkipInvalidAndDuplicateRowsAndInsertTheRest() {
+        String csv = "title,author,isbn,categoryName,totalCopies\n"
+                + "\"Pride, and Prejudice\",Jane Austen,111,fiction,2\n"
+                + "Emma,Jane Austen,111,Fiction,1\n"
+                + ",Nobody,222,,1\n"
+                + "Persuasion,Jane Austen,333,Poetry,1\n"
+                + "Dracula,Bram Stoker,444,,3\n";
+        when(bookRepository.findIsbnsByIsbnIn(anyCollection()))
+                .thenReturn(List.of(Book.builder().isbn("444").build()));
+        when(bookRepository.insertUnordered(anyList())).thenReturn(Map.of());
+
+        BookImportReportDTO report = bookImportService.importBooks(stream(csv), BookImportFormat.CSV);
+
+        assertEquals(5, report.getReceived());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(2, report.getFailed());
+        assertEquals(List.of(2L, 3L, 4L, 5L), report.getErrors().stream().map(e -> e.getRow()).toList());
+
+        ArgumentCaptor<List<Book>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository).insertUnordered(inserted.capture());
+        Book book = inserted.getValue().get(0);
+        assertEquals("Pride, and Prejudice", book.getTitle());
+        assertEquals(2, book.getAvailableCopies());
+        assertEquals("cat-1", book.getCategory().getId());
+        verify(bookSearchIndex).index(book);
+        verify(catalogCache).evictCategory("cat-1");
+        verify(categoryRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void importBooks_FromNdjson_ShouldWriteInBatchesAndReportIndexRejections() {
+        ReflectionTestUtils.setField(bookImportService, "batchSize", 2);
+        String ndjson = "{\"title\":\"A\",\"author\":\"X\",\"isbn\":\"1\"}\n"
+                + "{\"title\":\"B\",\"author\":\"X\",\"isbn\":\"2\"}\n"
+                + "{not json}\n"
+                + "{\"title\":\"C\",\"author\":\"X\",\"isbn\":\"3\"}\n";
+        when(bookRepository.findIsbnsByIsbnIn(anyCollection())).thenReturn(List.of());
+        when(bookRepository.insertUnordered(anyList()))
+                .thenReturn(Map.of(1, BookRepositoryCustom.DUPLICATE_ISBN))
+                .thenReturn(Map.of());
+
+        BookImportReportDTO report = bookImportService.importBooks(stream(ndjson), BookImportFormat.NDJSON);
+
+        assertEquals(4, report.getReceived());
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(1, report.getFailed());
+        verify(bookRepository, times(2)).insertUnordered(anyList());
+        verify(bookSearchIndex, times(2)).index(any(Book.class));
+    }
+
+    @Test
+    void importBooks_WhenReadAndFlushBothFail_ShouldKeepTheReadFailure() {
+        InputStream broken = new SequenceInputStream(
+                stream("title,author,isbn,categoryName,totalCopies\nEmma,Jane Austen,111,Fiction,1\n"),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("connection reset");
+                    }
+                });
+        when(bookRepository.findIsbnsByIsbnIn(anyCollection())).thenThrow(new IllegalStateException("down"));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> bookImportService.importBooks(broken, BookImportFormat.CSV));
+
+        assertTrue(ex.getMessage().contains("connection reset"));
+        assertEquals(1, ex.getSuppressed().length);
+        assertEquals("down", ex.getSuppressed()[0].getMessage());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,87 @@
+package com.elibrary.service;
+
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.projection.LoanLink;
+import com.mongodb.DBRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookRecommendationIndexTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @InjectMocks
+    private BookRecommendationIndex recommendationIndex;
+
+    @BeforeEach
+    void setUp() {
+        // Everyone borrows book-1; book-2 and book-3 are borrowed together by the same two readers
+        when(loanRepository.streamLinksBy()).thenAnswer(invocation -> Stream.of(
+                link("book-1", "alice"), link("book-2", "alice"), link("book-3", "alice"),
+                link("book-1", "bob"), link("book-2", "bob"), link("book-3", "bob"), link("book-2", "bob"),
+                link("book-1", "carol"), link("book-4", "carol"),
+                link("book-1", "dave")));
+        recommendationIndex.rebuild();
+    }
+
+    @Test
+    void similarBooks_ShouldRankBooksBorrowedTogetherAboveBooksEveryoneBorrows() {
+        assertEquals(List.of("book-3", "book-1"), recommendationIndex.similarBooks("book-2", 5));
+        assertEquals(List.of("book-3"), recommendationIndex.similarBooks("book-2", 1));
+        // book-4's single reader also borrowed book-1, but so did everyone else
+        assertEquals(List.of("book-2", "book-3", "book-4"), recommendationIndex.similarBooks("book-1", 5));
+        assertEquals(List.of(), recommendationIndex.similarBooks("unknown", 5));
+    }
+
+    @Test
+    void recordLoan_ShouldUpdateNeighboursIncrementally() {
+        recommendationIndex.recordLoan("book-4", "dave");
+        recommendationIndex.recordLoan("book-5", "dave");
+        // A repeat loan adds nothing
+        recommendationIndex.recordLoan("book-5", "dave");
+
+        // Equally similar, and book-1 was borrowed together with book-4 more often
+        assertEquals(List.of("book-1", "book-5"), recommendationIndex.similarBooks("book-4", 5));
+        assertEquals(List.of("book-4", "book-1"), recommendationIndex.similarBooks("book-5", 5));
+    }
+
+    @Test
+    void rebuild_ShouldMatchIncrementalUpdatesAcrossParallelTasks() {
+        Random random = new Random(7);
+        List<LoanLink> loans = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            loans.add(link("book-" + random.nextInt(BookRecommendationIndex.ROWS_PER_TASK * 3),
+                    "user-" + random.nextInt(400)));
+        }
+        BookRecommendationIndex incremental = new BookRecommendationIndex(loanRepository);
+        loans.forEach(loan -> incremental.recordLoan(String.valueOf(loan.getBook().getId()),
+                String.valueOf(loan.getUser().getId())));
+
+        when(loanRepository.streamLinksBy()).thenAnswer(invocation -> loans.stream());
+        recommendationIndex.rebuild();
+
+        assertEquals(neighbours(incremental, loans), neighbours(recommendationIndex, loans));
+    }
+
+    private static List<List<String>> neighbours(BookRecommendationIndex index, List<LoanLink> loans) {
+        return loans.stream()
+                .map(loan -> index.similarBooks(String.valueOf(loan.getBook().getId()), 5))
+                .toList();
+    }
+
+    private static LoanLink link(String bookId, String userId) {
+        return new LoanLink(null, new DBRef("books", bookId), new DBRef("users", userId));
+    }
+}
@@ -0,0 +1,100 @@
+package com.elibrary.service;
+
+import com.elibrary.entity.Book;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.projection.BookSearchText;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private BookSearchIndex bookSearchIndex;
+
+    private Book gatsby;
+    private Book tenderNight;
+
+    @BeforeEach
+    void setUp() {
+        gatsby = Book.builder()
+                .id("book-1")
+                .title("The Great Gatsby")
+                .author("F. Scott Fitzgerald")
+                .isbn("978-0743273565")
+                .description("A story of the Jazz Age")
+                .build();
+
+        tenderNight = Book.builder()
+                .id("book-2")
+                .title("Tender Is the Night")
+                .author("F. Scott Fitzgerald")
+                .isbn("978-0684801544")
+                .description("Set on the French Riviera, with a nod to Gatsby")
+                .build();
+
+        when(bookRepository.streamSearchTextBy()).thenReturn(Stream.of(gatsby, tenderNight)
+                .map(book -> new BookSearchText(book.getId(), book.getTitle(), book.getAuthor(),
+                        book.getDescription(), book.getIsbn())));
+        bookSearchIndex.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldMarkIndexReady() {
+        assertTrue(bookSearchIndex.isReady());
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchAboveDescriptionMatch() {
+        List<String> result = bookSearchIndex.search("gatsby", 50);
+
+        assertEquals(Arrays.asList("book-1", "book-2"), result);
+    }
+
+    @Test
+    void search_ShouldMatchPrefixesAndRequireEveryToken() {
+        assertEquals(Arrays.asList("book-1", "book-2"), bookSearchIndex.search("fitz", 50));
+        assertEquals(List.of("book-2"), bookSearchIndex.search("fitz tend", 50));
+        assertTrue(bookSearchIndex.search("fitz hemingway", 50).isEmpty());
+    }
+
+    @Test
+    void search_ShouldKeepOnlyTheBestMatchesUpToTheLimit() {
+        assertEquals(List.of("book-1"), bookSearchIndex.search("gatsby", 1));
+        assertEquals(List.of("book-1"), bookSearchIndex.search("fitz", 1));
+    }
+
+    @Test
+    void search_ShouldFindBooksByIsbnWithOrWithoutHyphens() {
+        assertEquals(List.of("book-1"), bookSearchIndex.search("978-0743273565", 50));
+        assertEquals(List.of("book-1"), bookSearchIndex.search("9780743273565", 50));
+    }
+
+    @Test
+    void index_ShouldReplacePreviousTermsOnUpdate() {
+        gatsby.setTitle("Trimalchio");
+        bookSearchIndex.index(gatsby);
+
+        assertEquals(List.of("book-1"), bookSearchIndex.search("trimalchio", 50));
+        assertEquals(List.of("book-2"), bookSearchIndex.search("gatsby", 50));
+    }
+
+    @Test
+    void remove_ShouldDropBookFromResults() {
+        bookSearchIndex.remove("book-2");
+
+        assertEquals(List.of("book-1"), bookSearchIndex.search("fitzgerald", 50));
+    }
+}
@@ -1,20 +1,36 @@
 package com.elibrary.service;
 
 import com.elibrary.dto.BookDTO;
+import com.elibrary.dto.BookFacetPageDTO;
+import com.elibrary.dto.BookSuggestionDTO;
+import com.elibrary.dto.BookSummaryDTO;
+import com.elibrary.dto.PageDTO;
 import com.elibrary.entity.Book;
 import com.elibrary.entity.Category;
+import com.elibrary.exception.BusinessException;
 import com.elibrary.exception.ResourceNotFoundException;
 import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.BookRepositoryCustom.FacetQuery;
 import com.elibrary.repository.CategoryRepository;
+import com.elibrary.repository.projection.BookFacets;
+import com.elibrary.repository.projection.BookSummary;
+import com.elibrary.repository.projection.CategoryRef;
+import com.elibrary.repository.projection.FacetCount;
+import com.mongodb.DBRef;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -28,10 +44,29 @@ class BookServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @Mock
+    private BookAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private BookAutocompleteIndex autocompleteIndex;
+
+    @Mock
+    private BookRecommendationIndex recommendationIndex;
+
     @InjectMocks
     private BookService bookService;
 
     private Book testBook;
+    private BookSummary testSummary;
     private Category testCategory;
 
     @BeforeEach
@@ -52,17 +87,50 @@ class BookServiceTest {
                 .availableCopies(2)
                 .category(testCategory)
                 .build();
+
+        testSummary = BookSummary.builder()
+                .id("book-1")
+                .title("The Great Gatsby")
+                .author("F. Scott Fitzgerald")
+                .isbn("978-0743273565")
+                .available(true)
+                .totalCopies(3)
+                .availableCopies(2)
+                .category(new DBRef("categories", "cat-1"))
+                .build();
     }
 
     @Test
     void getAllBooks_ShouldReturnListOfBooks() {
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(testBook));
+        when(bookRepository.findSummariesBy()).thenReturn(Arrays.asList(testSummary));
+        stubCategoryNames();
 
-        List<BookDTO> result = bookService.getAllBooks();
+        List<BookSummaryDTO> result = bookService.getAllBooks();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("The Great Gatsby", result.get(0).getTitle());
+        assertEquals("cat-1", result.get(0).getCategoryId());
+        assertEquals("Fiction", result.get(0).getCategoryName());
+        verify(bookRepository, never()).findAll();
+    }
+
+    @Test
+    void getBooksByCategory_ShouldResolveCategoryNamesOncePerListing() {
+        BookSummary sameCategory = BookSummary.builder()
+                .id("book-2")
+                .title("Tender Is the Night")
+                .category(new DBRef("categories", "cat-1"))
+                .build();
+        when(bookRepository.findSummariesByCategory_Id("cat-1")).thenReturn(List.of(testSummary, sameCategory));
+        stubCategoryNames();
+
+        List<BookSummaryDTO> result = bookService.getBooksByCategory("cat-1");
+
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(book -> "Fiction".equals(book.getCategoryName())));
+        verify(categoryRepository, times(1)).findRefsByIdIn(any());
+        verify(categoryRepository, never()).findById(any());
     }
 
     @Test
@@ -115,15 +183,150 @@ class BookServiceTest {
 
     @Test
     void searchBooks_ShouldReturnMatchingBooks() {
-        when(bookRepository.searchBooks("Gatsby")).thenReturn(Arrays.asList(testBook));
+        when(bookRepository.searchBookSummaries("Gatsby")).thenReturn(Arrays.asList(testSummary));
+        stubCategoryNames();
 
-        List<BookDTO> result = bookService.searchBooks("Gatsby");
+        List<BookSummaryDTO> result = bookService.searchBooks("Gatsby");
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("The Great Gatsby", result.get(0).getTitle());
     }
 
+    @Test
+    void searchBooks_WhenIndexReady_ShouldReturnBooksInRankedOrder() {
+        BookSummary otherBook = BookSummary.builder()
+                .id("book-2")
+                .title("Gatsby Revisited")
+                .author("Someone Else")
+                .build();
+
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search("Gatsby", 500)).thenReturn(Arrays.asList("book-2", "book-1"));
+        when(bookRepository.findSummariesByIdIn(Arrays.asList("book-2", "book-1")))
+                .thenReturn(Arrays.asList(testSummary, otherBook));
+        stubCategoryNames();
+
+        List<BookSummaryDTO> result = bookService.searchBooks("Gatsby");
+
+        assertEquals(2, result.size());
+        assertEquals("book-2", result.get(0).getId());
+        assertEquals("book-1", result.get(1).getId());
+        verify(bookRepository, never()).searchBookSummaries(any());
+    }
+
+    @Test
+    void getAvailableBooks_WhenIndexReady_ShouldLoadOnlyTheIndexedPageInIndexOrder() {
+        BookSummary otherBook = BookSummary.builder().id("book-2").title("Tender Is the Night").build();
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.availableIds("cat-1", 2, 2)).thenReturn(List.of("book-1", "book-2"));
+        when(availabilityIndex.countAvailable("cat-1")).thenReturn(5L);
+        when(bookRepository.findSummariesByIdIn(List.of("book-1", "book-2"))).thenReturn(List.of(otherBook, testSummary));
+        stubCategoryNames();
+
+        PageDTO<BookSummaryDTO> result = bookService.getAvailableBooks("cat-1", 1, 2);
+
+        assertEquals(List.of("book-1", "book-2"), result.getItems().stream().map(BookSummaryDTO::getId).toList());
+        assertEquals(5, result.getTotal());
+        assertTrue(result.isHasNext());
+        verify(bookRepository, never()).findSummariesByCategory_IdAndAvailableCopiesGreaterThan(any(), anyInt(), any());
+    }
+
+    @Test
+    void getAvailableBooks_WhenIndexNotReady_ShouldPageTheQueryByIdAndReportTheLastPage() {
+        when(bookRepository.findAvailableBookSummaries(PageRequest.of(1, 2, Sort.by("id")))).thenReturn(List.of(testSummary));
+        when(bookRepository.countByAvailableCopiesGreaterThan(0)).thenReturn(3L);
+        stubCategoryNames();
+
+        PageDTO<BookSummaryDTO> result = bookService.getAvailableBooks(null, 1, 2);
+
+        assertEquals(1, result.getItems().size());
+        assertFalse(result.isHasNext());
+    }
+
+    @Test
+    void getRecommendations_ShouldKeepSimilarityOrderAndSkipDeletedBooks() {
+        BookSummary otherBook = BookSummary.builder().id("book-2").title("Tender Is the Night").build();
+        when(recommendationIndex.similarBooks("book-9", 3)).thenReturn(List.of("book-2", "deleted", "book-1"));
+        when(bookRepository.findSummariesByIdIn(List.of("book-2", "deleted", "book-1")))
+                .thenReturn(List.of(testSummary, otherBook));
+        stubCategoryNames();
+
+        List<BookSummaryDTO> result = bookService.getRecommendations("book-9", 3);
+
+        assertEquals(List.of("book-2", "book-1"), result.stream().map(BookSummaryDTO::getId).toList());
+        assertThrows(BusinessException.class, () -> bookService.getRecommendations("book-9", 0));
+    }
+
+    @Test
+    void autocomplete_ShouldLinkSingleBookSuggestionsToTheirBook() {
+        when(autocompleteIndex.suggest("dick", 5)).thenReturn(List.of(
+                new BookAutocompleteIndex.Suggestion("Charles Dickens", BookAutocompleteIndex.Field.AUTHOR,
+                        List.of("book-2", "book-3"), 8),
+                new BookAutocompleteIndex.Suggestion("Moby Dick", BookAutocompleteIndex.Field.TITLE,
+                        List.of("book-4"), 2)));
+
+        List<BookSuggestionDTO> result = bookService.autocomplete("dick", 5);
+
+        assertEquals("author", result.get(0).getField());
+        assertNull(result.get(0).getBookId());
+        assertEquals(2, result.get(0).getBookCount());
+        assertEquals("book-4", result.get(1).getBookId());
+        assertThrows(BusinessException.class, () -> bookService.autocomplete("dick", 50));
+    }
+
+    @Test
+    void facetSearch_WhenIndexReady_ShouldFilterByRankedIdsAndLabelFacets() {
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search("gatsby", 501)).thenReturn(List.of("book-1"));
+        when(bookRepository.facetSearch(any())).thenReturn(BookFacets.builder()
+                .results(List.of(testSummary))
+                .total(1)
+                .categories(List.of(new FacetCount("cat-1", 1)))
+                .authors(List.of(new FacetCount("F. Scott Fitzgerald", 1)))
+                .decades(List.of(new FacetCount("1920", 1)))
+                .availability(List.of(new FacetCount("true", 1)))
+                .build());
+        stubCategoryNames();
+
+        BookFacetPageDTO result = bookService.facetSearch("gatsby", null, null, 1920, true, 2, 10, "-publishedYear");
+
+        ArgumentCaptor<FacetQuery> query = ArgumentCaptor.forClass(FacetQuery.class);
+        verify(bookRepository).facetSearch(query.capture());
+        assertEquals(List.of("book-1"), query.getValue().matchingIds());
+        assertEquals(20, query.getValue().offset());
+        assertEquals(10, query.getValue().limit());
+        assertEquals(1, result.getTotal());
+        assertEquals("Fiction", result.getItems().get(0).getCategoryName());
+        assertEquals("Fiction", result.getCategories().get(0).getLabel());
+        assertEquals("1920s", result.getDecades().get(0).getLabel());
+        assertEquals("Available", result.getAvailability().get(0).getLabel());
+    }
+
+    @Test
+    void facetSearch_WithUnalignedDecade_ShouldThrowException() {
+        assertThrows(BusinessException.class,
+                () -> bookService.facetSearch(null, null, null, 1925, null, 0, 50, "title"));
+        verify(bookRepository, never()).facetSearch(any());
+    }
+
+    @Test
+    void updateBook_ShouldDeriveAvailableFlagFromCopiesAndUpdateIndex() {
+        BookDTO update = BookDTO.builder()
+                .title("The Great Gatsby")
+                .author("F. Scott Fitzgerald")
+                .totalCopies(3)
+                .availableCopies(0)
+                .build();
+        when(bookRepository.findById("book-1")).thenReturn(Optional.of(testBook));
+        when(bookRepository.save(testBook)).thenReturn(testBook);
+
+        BookDTO result = bookService.updateBook("book-1", update);
+
+        assertFalse(result.getAvailable());
+        verify(availabilityIndex).index(testBook);
+    }
+
     @Test
     void deleteBook_WhenExists_ShouldDeleteSuccessfully() {
         when(bookRepository.findById("book-1")).thenReturn(Optional.of(testBook));
@@ -131,5 +334,13 @@ class BookServiceTest {
 
         assertDoesNotThrow(() -> bookService.deleteBook("book-1"));
         verify(bookRepository, times(1)).delete(testBook);
+        verify(bookSearchIndex, times(1)).remove("book-1");
+        verify(availabilityIndex, times(1)).remove("book-1");
+        verify(autocompleteIndex, times(1)).remove("book-1");
+    }
+
+    private void stubCategoryNames() {
+        when(categoryRepository.findRefsByIdIn(Set.of("cat-1")))
+                .thenReturn(List.of(new CategoryRef(testCategory.getId(), testCategory.getName())));
     }
 }
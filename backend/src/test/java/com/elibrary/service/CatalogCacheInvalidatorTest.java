@@ -0,0 +1,39 @@
+package com.elibrary.service;
+
+import com.elibrary.event.CollectionChangeEvent;
+import com.mongodb.client.model.changestream.OperationType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogCacheInvalidatorTest {
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @InjectMocks
+    private CatalogCacheInvalidator invalidator;
+
+    @Test
+    void onChanges_ShouldEvictEveryCategoryCountOncePerBatchForRemoteMovesAndDeletes() {
+        invalidator.onChanges(List.of(
+                new CollectionChangeEvent("books", OperationType.UPDATE, "book-1", null, null),
+                new CollectionChangeEvent("books", OperationType.DELETE, "book-2", null, null)));
+
+        verify(catalogCache).evictBook("book-1");
+        verify(catalogCache).evictBook("book-2");
+        verify(catalogCache, times(1)).evictAllCategories();
+    }
+
+    @Test
+    void onChanges_WhenNoBookChanged_ShouldKeepCategoryCounts() {
+        invalidator.onChanges(List.of(new CollectionChangeEvent("books", OperationType.INVALIDATE, null, null, null)));
+
+        verify(catalogCache, never()).evictAllCategories();
+    }
+}
@@ -0,0 +1,82 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.CategoryDTO;
+import com.elibrary.entity.Category;
+import com.elibrary.exception.BusinessException;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.CategoryRepository;
+import com.elibrary.repository.projection.CategorySummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @InjectMocks
+    private CategoryService categoryService;
+
+    private Category fiction;
+    private Category poetry;
+
+    @BeforeEach
+    void setUp() {
+        fiction = Category.builder().id("cat-1").name("Fiction").build();
+        poetry = Category.builder().id("cat-2").name("Poetry").build();
+    }
+
+    @Test
+    void getAllCategories_ShouldReadCategoriesAndCountsInOneAggregation() {
+        when(categoryRepository.findAllWithBookCounts()).thenReturn(List.of(
+                new CategorySummary("cat-1", "Fiction", null, 12),
+                new CategorySummary("cat-2", "Poetry", null, 0)));
+
+        List<CategoryDTO> result = categoryService.getAllCategories();
+
+        assertEquals(List.of("Fiction", "Poetry"), result.stream().map(CategoryDTO::getName).toList());
+        assertEquals(12, result.get(0).getBookCount());
+        assertEquals(0, result.get(1).getBookCount());
+        verify(categoryRepository, never()).findAll();
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void deleteCategory_WhenBooksExist_ShouldThrowWithoutLoadingBooks() {
+        when(categoryRepository.findById("cat-1")).thenReturn(Optional.of(fiction));
+        when(bookRepository.existsByCategory_Id("cat-1")).thenReturn(true);
+
+        assertThrows(BusinessException.class, () -> categoryService.deleteCategory("cat-1"));
+        verify(categoryRepository, never()).delete(any());
+        verify(bookRepository, never()).findByCategory_Id(anyString());
+    }
+
+    @Test
+    void updateCategory_WhenRenamed_ShouldEvictCachedBooks() {
+        when(categoryRepository.findById("cat-1")).thenReturn(Optional.of(fiction));
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookRepository.countByCategory_Id("cat-1")).thenReturn(3L);
+
+        categoryService.updateCategory("cat-1", CategoryDTO.builder().name("Novels").build());
+
+        verify(catalogCache).evictCategory("cat-1");
+        verify(catalogCache).evictAllBooks();
+    }
+}
@@ -0,0 +1,144 @@
+package com.elibrary.service;
+
+import com.elibrary.event.ChangeEventSubscriber;
+import com.elibrary.event.CollectionChangeEvent;
+import com.mongodb.client.model.changestream.OperationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeEventFanoutTest {
+
+    private ChangeEventFanout fanout;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        fanout.stop();
+    }
+
+    @Test
+    void publish_ShouldDeliverOnlyToInterestedSubscribersAndTrackProgress() throws Exception {
+        RecordingSubscriber books = new RecordingSubscriber(Set.of("books"), 2);
+        RecordingSubscriber loans = new RecordingSubscriber(Set.of("loans"), 1);
+        fanout = new ChangeEventFanout(List.of(books, loans), 10, 100);
+        fanout.start();
+
+        fanout.publish(1, event("books", "b1"));
+        fanout.publish(2, event("books", "b2"));
+        fanout.publish(1, event("loans", "l1"));
+
+        assertTrue(books.done.await(5, TimeUnit.SECONDS));
+        assertTrue(loans.done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("b1", "b2"), books.ids);
+        assertEquals(List.of("l1"), loans.ids);
+        awaitHandled("books", 2);
+        assertEquals(2, fanout.handledUpTo("books", 2));
+        // Nobody listens to categories, so everything published there counts as handled
+        assertEquals(7, fanout.handledUpTo("categories", 7));
+    }
+
+    @Test
+    void handledUpTo_ShouldWaitForTheSlowestSubscriber() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSubscriber fast = new RecordingSubscriber(Set.of("books"), 1);
+        ChangeEventSubscriber slow = new ChangeEventSubscriber() {
+            @Override
+            public Set<String> collections() {
+                return Set.of("books");
+            }
+
+            @Override
+            public void onChanges(List<CollectionChangeEvent> events) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        fanout = new ChangeEventFanout(List.of(fast, slow), 10, 100);
+        fanout.start();
+
+        fanout.publish(1, event("books", "b1"));
+        assertTrue(fast.done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(0, fanout.handledUpTo("books", 1));
+        release.countDown();
+        awaitHandled("books", 1);
+    }
+
+    @Test
+    void handledUpTo_ShouldNotMovePastAFailingBatchUntilARetrySucceeds() throws Exception {
+        CountDownLatch failures = new CountDownLatch(3);
+        AtomicBoolean recovered = new AtomicBoolean();
+        List<String> ids = new CopyOnWriteArrayList<>();
+        ChangeEventSubscriber flaky = new ChangeEventSubscriber() {
+            @Override
+            public Set<String> collections() {
+                return Set.of("books");
+            }
+
+            @Override
+            public void onChanges(List<CollectionChangeEvent> events) {
+                if (!recovered.get()) {
+                    failures.countDown();
+                    throw new IllegalStateException("down");
+                }
+                events.forEach(event -> ids.add(event.documentId()));
+            }
+        };
+        fanout = new ChangeEventFanout(List.of(flaky), 10, 100, 1);
+        fanout.start();
+
+        fanout.publish(1, event("books", "b1"));
+        assertTrue(failures.await(5, TimeUnit.SECONDS));
+
+        assertEquals(0, fanout.handledUpTo("books", 1));
+        recovered.set(true);
+        awaitHandled("books", 1);
+        assertEquals(List.of("b1"), ids);
+    }
+
+    private void awaitHandled(String collection, long sequence) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (fanout.handledUpTo(collection, sequence) < sequence && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(sequence, fanout.handledUpTo(collection, sequence));
+    }
+
+    private static CollectionChangeEvent event(String collection, String id) {
+        return new CollectionChangeEvent(collection, OperationType.UPDATE, id, null, null);
+    }
+
+    private static class RecordingSubscriber implements ChangeEventSubscriber {
+
+        private final Set<String> collections;
+        private final List<String> ids = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done;
+
+        RecordingSubscriber(Set<String> collections, int expected) {
+            this.collections = collections;
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public Set<String> collections() {
+            return collections;
+        }
+
+        @Override
+        public void onChanges(List<CollectionChangeEvent> events) {
+            events.forEach(event -> {
+                ids.add(event.documentId());
+                done.countDown();
+            });
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.elibrary.service;
+
+import com.elibrary.entity.Book;
+import com.elibrary.entity.ChangeStreamOffset;
+import com.elibrary.event.ChangeEventSubscriber;
+import com.elibrary.event.CollectionChangeEvent;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against a single-node replica set, which is what change streams need; skipped without Docker
+@Testcontainers(disabledWithoutDocker = true)
+class ChangeStreamPipelineTest {
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "elibrary");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.close();
+    }
+
+    @Test
+    void restart_ShouldResumeAfterTheLastCheckpointedChange() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        ChangeStreamPipeline pipeline = new ChangeStreamPipeline(mongoTemplate, List.of(subscriber), true, 100, 10);
+        pipeline.start();
+        // The stream only sees changes made after its cursor is open, so keep writing until one arrives
+        CollectionChangeEvent first = null;
+        for (int attempt = 0; first == null && attempt < 20; attempt++) {
+            mongoTemplate.insert(book("warm-up-" + attempt));
+            first = subscriber.events.poll(1, TimeUnit.SECONDS);
+        }
+        assertNotNull(first);
+        pipeline.stop();
+        assertNotNull(mongoTemplate.findById("books", ChangeStreamOffset.class));
+
+        Book missed = mongoTemplate.insert(book("written-while-stopped"));
+        ChangeStreamPipeline restarted = new ChangeStreamPipeline(mongoTemplate, List.of(subscriber), true, 100, 10);
+        restarted.start();
+        try {
+            // Late warm-up changes may come first; the one written while stopped must follow
+            CollectionChangeEvent resumed;
+            do {
+                resumed = subscriber.events.poll(10, TimeUnit.SECONDS);
+            } while (resumed != null && !missed.getId().equals(resumed.documentId()));
+            assertNotNull(resumed);
+            assertEquals("written-while-stopped", resumed.fullDocument().getString("isbn"));
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    private static Book book(String isbn) {
+        return Book.builder().title("Change " + isbn).author("Tester").isbn(isbn).totalCopies(1).availableCopies(1)
+                .build();
+    }
+
+    private static class RecordingSubscriber implements ChangeEventSubscriber {
+
+        private final BlockingQueue<CollectionChangeEvent> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public Set<String> collections() {
+            return Set.of("books");
+        }
+
+        @Override
+        public void onChanges(List<CollectionChangeEvent> batch) {
+            events.addAll(batch);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.CirculationBackfillDTO;
+import com.elibrary.dto.CirculationReportDTO;
+import com.elibrary.entity.Book;
+import com.elibrary.entity.Loan;
+import com.elibrary.exception.BusinessException;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.CategoryRepository;
+import com.elibrary.repository.CirculationRollupRepository;
+import com.elibrary.repository.CirculationRollupRepositoryCustom.RollupIncrement;
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.projection.BookCirculationRef;
+import com.elibrary.repository.projection.CategoryRef;
+import com.elibrary.repository.projection.CirculationTotals;
+import com.elibrary.repository.projection.LoanHistory;
+import com.mongodb.DBRef;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CirculationAnalyticsServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private CirculationRollupRepository rollupRepository;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private CirculationAnalyticsService circulationAnalytics;
+
+    @Captor
+    private ArgumentCaptor<Collection<RollupIncrement>> increments;
+
+    @Test
+    void recordReturns_ShouldMergePerBookAndCountLateReturnsTheSweepMissedAsOverdue() {
+        Book book = Book.builder().id("book-1").build();
+        Loan onTime = returned(book, TODAY.plusDays(3), null);
+        Loan lateUnswept = returned(book, TODAY.minusDays(2), null);
+        Loan lateSwept = returned(book, TODAY.minusDays(5), TODAY.minusDays(4));
+        when(bookRepository.findCirculationRefsByIdIn(Set.of("book-1"))).thenReturn(List.of(
+                new BookCirculationRef("book-1", "The Great Gatsby", new DBRef("categories", "fiction"))));
+
+        circulationAnalytics.recordReturns(List.of(onTime, lateUnswept, lateSwept));
+
+        RollupIncrement expected = new RollupIncrement(TODAY, "book-1", "fiction", "The Great Gatsby", 0, 3, 1);
+        verify(rollupRepository).increment(argThat((Collection<RollupIncrement> increments) ->
+                List.copyOf(increments).equals(List.of(expected))));
+    }
+
+    @Test
+    void recordReturns_WhenRollupWriteFails_ShouldNotFailTheReturn() {
+        Book book = Book.builder().id("book-1").build();
+        doThrow(new IllegalStateException("down")).when(rollupRepository).increment(any());
+
+        assertDoesNotThrow(() -> circulationAnalytics.recordReturns(List.of(returned(book, TODAY, null))));
+    }
+
+    @Test
+    void getCirculation_ShouldFillDaysWithoutRollupsAndRateOverdueLoansPerCheckout() {
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 3);
+        when(rollupRepository.sumByDay(from, to, "fiction")).thenReturn(List.of(
+                new CirculationTotals(from, 6, 1, 0),
+                new CirculationTotals(to, 2, 4, 2)));
+        when(categoryRepository.findRefsByIdIn(Set.of("fiction")))
+                .thenReturn(List.of(new CategoryRef("fiction", "Fiction")));
+
+        CirculationReportDTO report = circulationAnalytics.getCirculation(from, to, "fiction");
+
+        assertEquals(3, report.getDays().size());
+        assertEquals(0, report.getDays().get(1).getCheckouts());
+        assertEquals(8, report.getCheckouts());
+        assertEquals(5, report.getReturns());
+        assertEquals(0.25, report.getOverdueRate());
+        assertEquals("Fiction", report.getCategoryName());
+    }
+
+    @Test
+    void getCirculation_ShouldRejectReversedAndOverlongRanges() {
+        assertThrows(BusinessException.class,
+                () -> circulationAnalytics.getCirculation(TODAY, TODAY.minusDays(1), null));
+        assertThrows(BusinessException.class,
+                () -> circulationAnalytics.getCirculation(TODAY.minusDays(366), TODAY, null));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void backfill_ShouldRebuildDaysBeforeTodayInParallelBatches() {
+        ReflectionTestUtils.setField(circulationAnalytics, "backfillBatchSize", 2);
+        ReflectionTestUtils.setField(circulationAnalytics, "backfillParallelism", 2);
+        LocalDate start = TODAY.minusDays(30);
+        when(loanRepository.streamHistoryBy()).thenReturn(Stream.of(
+                // Returned late before any sweep saw it
+                history(start, start.plusDays(14), start.plusDays(19), Loan.LoanStatus.RETURNED, null),
+                history(start, start.plusDays(14), null, Loan.LoanStatus.OVERDUE, start.plusDays(15)),
+                // Marked overdue before overdueSince existed
+                history(start.plusDays(1), start.plusDays(5), null, Loan.LoanStatus.OVERDUE, null),
+                // Today's rollups are left to the live updates
+                history(TODAY, TODAY.plusDays(14), null, Loan.LoanStatus.ACTIVE, null)));
+        when(bookRepository.findCirculationRefsByIdIn(anyCollection())).thenReturn(List.of(
+                new BookCirculationRef("book-1", "The Great Gatsby", new DBRef("categories", "fiction"))));
+        when(rollupRepository.countByDayBefore(TODAY)).thenReturn(5L);
+
+        CirculationBackfillDTO result = circulationAnalytics.backfill();
+
+        assertEquals(4, result.getLoans());
+        assertEquals(5, result.getRollups());
+        verify(rollupRepository).deleteByDayBefore(TODAY);
+        Map<LocalDate, long[]> totals = new TreeMap<>();
+        verify(rollupRepository, times(2)).increment(increments.capture());
+        increments.getAllValues().stream().flatMap(Collection::stream).forEach(increment -> {
+            assertEquals("fiction", increment.categoryId());
+            long[] counts = totals.computeIfAbsent(increment.day(), day -> new long[3]);
+            counts[0] += increment.checkouts();
+            counts[1] += increment.returns();
+            counts[2] += increment.overdue();
+        });
+        assertEquals(Set.of(start, start.plusDays(1), start.plusDays(6), start.plusDays(15), start.plusDays(19)),
+                totals.keySet());
+        assertArrayEquals(new long[] { 2, 0, 0 }, totals.get(start));
+        assertArrayEquals(new long[] { 1, 0, 0 }, totals.get(start.plusDays(1)));
+        assertArrayEquals(new long[] { 0, 0, 1 }, totals.get(start.plusDays(6)));
+        assertArrayEquals(new long[] { 0, 0, 1 }, totals.get(start.plusDays(15)));
+        assertArrayEquals(new long[] { 0, 1, 1 }, totals.get(start.plusDays(19)));
+    }
+
+    private static Loan returned(Book book, LocalDate dueDate, LocalDate overdueSince) {
+        return Loan.builder()
+                .id(UUID.randomUUID().toString())
+                .book(book)
+                .dueDate(dueDate)
+                .returnDate(TODAY)
+                .overdueSince(overdueSince)
+                .status(Loan.LoanStatus.RETURNED)
+                .build();
+    }
+
+    private static LoanHistory history(LocalDate loanDate, LocalDate dueDate, LocalDate returnDate,
+            Loan.LoanStatus status, LocalDate overdueSince) {
+        return new LoanHistory(UUID.randomUUID().toString(), new DBRef("books", "book-1"), loanDate, dueDate,
+                returnDate, status, overdueSince);
+    }
+}
@@ -0,0 +1,68 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.CursorPageDTO;
+import com.elibrary.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorPagingTest {
+
+    @Test
+    void sort_ShouldAppendIdTieBreakerAndHonourDescendingPrefix() {
+        Sort sort = CursorPaging.sort("-title", Set.of("title"));
+
+        assertEquals(Sort.by(Sort.Direction.DESC, "title").and(Sort.by(Sort.Direction.DESC, "id")), sort);
+    }
+
+    @Test
+    void sort_WhenKeyNotAllowed_ShouldThrowBusinessException() {
+        assertThrows(BusinessException.class, () -> CursorPaging.sort("password", Set.of("name")));
+    }
+
+    @Test
+    void page_ShouldIssueCursorThatResumesFromLastKeyset() {
+        Sort sort = CursorPaging.sort("dueDate", Set.of("dueDate"));
+        Map<String, Object> lastKeys = new LinkedHashMap<>();
+        lastKeys.put("id", "loan-2");
+        lastKeys.put("due_date", LocalDate.of(2026, 3, 1));
+        Window<String> window = Window.from(List.of("loan-1", "loan-2"),
+                index -> ScrollPosition.forward(lastKeys), true);
+
+        CursorPageDTO<String> page = CursorPaging.page(window, sort, item -> item);
+        KeysetScrollPosition position = CursorPaging.position(page.getNextCursor(), sort);
+
+        assertTrue(page.isHasNext());
+        assertEquals(lastKeys, position.getKeys());
+    }
+
+    @Test
+    void page_WhenLastWindow_ShouldNotIssueCursor() {
+        Sort sort = CursorPaging.sort(null, Set.of());
+        Window<String> window = Window.from(List.of("a"), index -> ScrollPosition.forward(Map.of("id", "a")), false);
+
+        CursorPageDTO<String> page = CursorPaging.page(window, sort, item -> item);
+
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void position_WhenCursorIsTamperedOrForOtherSort_ShouldThrowBusinessException() {
+        Sort byName = CursorPaging.sort("name", Set.of("name"));
+        Window<String> window = Window.from(List.of("a"),
+                index -> ScrollPosition.forward(Map.of("id", "a", "name", "Ada")), true);
+        String cursor = CursorPaging.page(window, byName, item -> item).getNextCursor();
+
+        assertThrows(BusinessException.class, () -> CursorPaging.position("not-a-cursor", byName));
+        assertThrows(BusinessException.class, () -> CursorPaging.position(cursor, CursorPaging.sort(null, Set.of())));
+    }
+}
@@ -0,0 +1,303 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.LoanBatchResultDTO;
+import com.elibrary.dto.LoanCheckoutRequestDTO;
+import com.elibrary.dto.LoanDTO;
+import com.elibrary.entity.Book;
+import com.elibrary.entity.Loan;
+import com.elibrary.entity.User;
+import com.elibrary.exception.BusinessException;
+import com.elibrary.exception.ResourceNotFoundException;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.BookRepositoryCustom.CopyReservation;
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.UserRepository;
+import com.elibrary.repository.projection.BookRef;
+import com.elibrary.repository.projection.UserRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanServiceTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @Mock
+    private BookAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private BookRecommendationIndex recommendationIndex;
+
+    @Mock
+    private CirculationAnalyticsService circulationAnalytics;
+
+    @InjectMocks
+    private LoanService loanService;
+
+    private Book testBook;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testBook = Book.builder()
+                .id("book-1")
+                .title("The Great Gatsby")
+                .author("F. Scott Fitzgerald")
+                .totalCopies(1)
+                .availableCopies(0)
+                .build();
+
+        testUser = User.builder()
+                .id("user-1")
+                .name("Alice")
+                .email("alice@example.com")
+                .active(true)
+                .activeLoans(1)
+                .build();
+    }
+
+    @Test
+    void getAllLoans_ShouldResolveReferencesWithOneProjectedQueryPerCollection() {
+        Loan first = Loan.builder().id("loan-1").book(testBook).user(testUser)
+                .status(Loan.LoanStatus.ACTIVE).build();
+        Loan second = Loan.builder().id("loan-2").book(testBook).user(testUser)
+                .status(Loan.LoanStatus.RETURNED).build();
+        when(loanRepository.findAll()).thenReturn(List.of(first, second));
+        when(bookRepository.findRefsByIdIn(Set.of("book-1")))
+                .thenReturn(List.of(new BookRef("book-1", "The Great Gatsby", null)));
+        when(userRepository.findRefsByIdIn(Set.of("user-1"))).thenReturn(List.of(new UserRef("user-1", "Alice")));
+
+        List<LoanDTO> result = loanService.getAllLoans();
+
+        assertEquals(2, result.size());
+        assertEquals("The Great Gatsby", result.get(1).getBookTitle());
+        assertEquals("Alice", result.get(1).getUserName());
+        verify(bookRepository, times(1)).findRefsByIdIn(anyCollection());
+        verify(userRepository, times(1)).findRefsByIdIn(anyCollection());
+        verify(bookRepository, never()).findAllById(anyIterable());
+        verify(userRepository, never()).findAllById(anyIterable());
+        verify(bookRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void getAllLoans_InSnapshotReadModel_ShouldNotResolveReferences() {
+        ReflectionTestUtils.setField(loanService, "readModel", LoanReadModel.SNAPSHOT);
+        Loan loan = Loan.builder().id("loan-1").book(testBook).user(testUser)
+                .bookTitle("The Great Gatsby").userName("Alice")
+                .status(Loan.LoanStatus.ACTIVE).build();
+        when(loanRepository.findAll()).thenReturn(List.of(loan));
+
+        List<LoanDTO> result = loanService.getAllLoans();
+
+        assertEquals("The Great Gatsby", result.get(0).getBookTitle());
+        assertEquals("user-1", result.get(0).getUserId());
+        verify(bookRepository, never()).findRefsByIdIn(anyCollection());
+        verify(userRepository, never()).findRefsByIdIn(anyCollection());
+    }
+
+    @Test
+    void checkoutBook_ShouldReserveSlotAndCopyThenSaveLoan() {
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+        when(userRepository.reserveLoanSlot("user-1", 5)).thenReturn(true);
+        when(bookRepository.reserveCopy("book-1")).thenReturn(Optional.of(testBook));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> {
+            Loan loan = invocation.getArgument(0);
+            loan.setId("loan-1");
+            return loan;
+        });
+
+        LoanDTO result = loanService.checkoutBook("book-1", "user-1");
+
+        assertEquals("loan-1", result.getId());
+        assertEquals("ACTIVE", result.getStatus());
+        verify(bookRepository, never()).save(any());
+        verify(userRepository, never()).releaseLoanSlot(anyString());
+        verify(availabilityIndex).index(testBook);
+        verify(recommendationIndex).recordLoan("book-1", "user-1");
+        verify(circulationAnalytics).recordCheckouts(List.of(testBook));
+    }
+
+    @Test
+    void checkoutBook_WhenLimitReached_ShouldNotTouchInventory() {
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+        when(userRepository.reserveLoanSlot("user-1", 5)).thenReturn(false);
+
+        assertThrows(BusinessException.class, () -> loanService.checkoutBook("book-1", "user-1"));
+        verify(bookRepository, never()).reserveCopy(anyString());
+    }
+
+    @Test
+    void checkoutBook_WhenNoCopyLeft_ShouldReleaseReservedSlot() {
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+        when(userRepository.reserveLoanSlot("user-1", 5)).thenReturn(true);
+        when(bookRepository.reserveCopy("book-1")).thenReturn(Optional.empty());
+        when(bookRepository.existsById("book-1")).thenReturn(true);
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> loanService.checkoutBook("book-1", "user-1"));
+
+        assertEquals("No copies available for checkout", ex.getMessage());
+        verify(userRepository, times(1)).releaseLoanSlot("user-1");
+        verify(loanRepository, never()).save(any());
+        verify(recommendationIndex, never()).recordLoan(anyString(), anyString());
+        verify(circulationAnalytics, never()).recordCheckouts(any());
+    }
+
+    @Test
+    void checkoutBook_WhenCounterMissing_ShouldSeedItFromExistingLoans() {
+        testUser.setActiveLoans(null);
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+        when(loanRepository.countByUser_IdAndStatusIn("user-1", Loan.LoanStatus.UNRETURNED)).thenReturn(5L);
+        when(userRepository.reserveLoanSlot("user-1", 5)).thenReturn(false);
+
+        assertThrows(BusinessException.class, () -> loanService.checkoutBook("book-1", "user-1"));
+        verify(userRepository).initializeActiveLoans("user-1", 5L);
+    }
+
+    @Test
+    void returnBook_ShouldReleaseCopyAndSlot() {
+        Loan loan = Loan.builder()
+                .id("loan-1")
+                .book(testBook)
+                .user(testUser)
+                .loanDate(LocalDate.now().minusDays(3))
+                .dueDate(LocalDate.now().plusDays(11))
+                .returnDate(LocalDate.now())
+                .status(Loan.LoanStatus.RETURNED)
+                .build();
+        when(loanRepository.markReturned(eq("loan-1"), any(LocalDate.class))).thenReturn(Optional.of(loan));
+
+        LoanDTO result = loanService.returnBook("loan-1");
+
+        assertEquals("RETURNED", result.getStatus());
+        verify(bookRepository).releaseCopy("book-1");
+        verify(userRepository).releaseLoanSlot("user-1");
+        verify(circulationAnalytics).recordReturns(List.of(loan));
+    }
+
+    @Test
+    void returnBook_WhenAlreadyReturned_ShouldNotReleaseAnything() {
+        when(loanRepository.markReturned(eq("loan-1"), any(LocalDate.class))).thenReturn(Optional.empty());
+        when(loanRepository.existsById("loan-1")).thenReturn(true);
+
+        assertThrows(BusinessException.class, () -> loanService.returnBook("loan-1"));
+        verify(bookRepository, never()).releaseCopy(anyString());
+        verify(userRepository, never()).releaseLoanSlot(anyString());
+    }
+
+    @Test
+    void returnBook_WhenLoanMissing_ShouldThrowNotFound() {
+        when(loanRepository.markReturned(eq("missing"), any(LocalDate.class))).thenReturn(Optional.empty());
+        when(loanRepository.existsById("missing")).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> loanService.returnBook("missing"));
+    }
+
+    @Test
+    void extendLoan_WhenOverdueAndExtendedPastToday_ShouldBecomeActiveAgain() {
+        Loan loan = Loan.builder()
+                .id("loan-1")
+                .book(testBook)
+                .user(testUser)
+                .dueDate(LocalDate.now().minusDays(2))
+                .status(Loan.LoanStatus.OVERDUE)
+                .build();
+        when(loanRepository.findById("loan-1")).thenReturn(Optional.of(loan));
+        when(loanRepository.changeDueDate("loan-1", loan.getDueDate(), loan.getDueDate().plusDays(7),
+                Loan.LoanStatus.ACTIVE)).thenReturn(Optional.of(loan));
+
+        loanService.extendLoan("loan-1", 7);
+
+        verify(loanRepository).changeDueDate("loan-1", loan.getDueDate(), loan.getDueDate().plusDays(7),
+                Loan.LoanStatus.ACTIVE);
+    }
+
+    @Test
+    void checkoutBooks_ShouldApplyUserLimitAndReportEachItem() {
+        Book second = Book.builder().id("book-2").title("Emma").totalCopies(1).availableCopies(1).build();
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(testUser));
+        when(bookRepository.findAllById(anyIterable())).thenReturn(List.of(testBook, second));
+        when(userRepository.reserveLoanSlots("user-1", 5, 2)).thenReturn(1);
+        when(bookRepository.reserveCopies("book-1", 1)).thenReturn(new CopyReservation(1, 2, 5L));
+
+        LoanBatchResultDTO result = loanService.checkoutBooks(List.of(
+                new LoanCheckoutRequestDTO("book-1", "user-1"),
+                new LoanCheckoutRequestDTO("book-1", "nobody"),
+                new LoanCheckoutRequestDTO("book-2", "user-1")));
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals("The Great Gatsby", result.getItems().get(0).getLoan().getBookTitle());
+        assertEquals("not_found", result.getItems().get(1).getReason());
+        assertEquals("loan_limit_reached", result.getItems().get(2).getReason());
+        verify(bookRepository, never()).reserveCopies(eq("book-2"), anyInt());
+        verify(loanRepository, times(1)).insert(argThat((List<Loan> loans) -> loans.size() == 1));
+        verify(availabilityIndex).setAvailable("book-1", true, 5L);
+        verify(recommendationIndex).recordLoan("book-1", "user-1");
+        verify(circulationAnalytics).recordCheckouts(List.of(testBook));
+    }
+
+    @Test
+    void checkoutBooks_WhenCopiesRunOut_ShouldReleaseUnusedSlots() {
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(testUser));
+        when(bookRepository.findAllById(anyIterable())).thenReturn(List.of(testBook));
+        when(userRepository.reserveLoanSlots("user-1", 5, 2)).thenReturn(2);
+        when(bookRepository.reserveCopies("book-1", 2)).thenReturn(new CopyReservation(1, 0, 3L));
+
+        LoanBatchResultDTO result = loanService.checkoutBooks(List.of(
+                new LoanCheckoutRequestDTO("book-1", "user-1"),
+                new LoanCheckoutRequestDTO("book-1", "user-1")));
+
+        assertTrue(result.getItems().get(0).isSuccess());
+        assertEquals("no_copies_available", result.getItems().get(1).getReason());
+        verify(userRepository).releaseLoanSlots(Map.of("user-1", 1));
+        verify(availabilityIndex).setAvailable("book-1", false, 3L);
+    }
+
+    @Test
+    void returnBooks_ShouldReleaseInventoryOnlyForLoansReturnedByThisBatch() {
+        Loan loan = Loan.builder().id("loan-1").book(testBook).user(testUser)
+                .status(Loan.LoanStatus.RETURNED).build();
+        Loan alreadyReturned = Loan.builder().id("loan-2").status(Loan.LoanStatus.RETURNED).build();
+        when(loanRepository.markReturned(eq(Set.of("loan-1", "loan-2", "missing")), any(LocalDate.class), anyString()))
+                .thenReturn(List.of(loan));
+        when(loanRepository.findAllById(Set.of("loan-2", "missing"))).thenReturn(List.of(alreadyReturned));
+        when(bookRepository.findRefsByIdIn(Set.of("book-1")))
+                .thenReturn(List.of(new BookRef("book-1", "The Great Gatsby", null)));
+        when(userRepository.findRefsByIdIn(Set.of("user-1"))).thenReturn(List.of(new UserRef("user-1", "Alice")));
+
+        LoanBatchResultDTO result = loanService.returnBooks(List.of("loan-1", "loan-2", "loan-1", "missing"));
+
+        assertTrue(result.getItems().get(0).isSuccess());
+        assertEquals("already_returned", result.getItems().get(1).getReason());
+        assertEquals("invalid_request", result.getItems().get(2).getReason());
+        assertEquals("not_found", result.getItems().get(3).getReason());
+        verify(bookRepository).releaseCopies(Map.of("book-1", 1));
+        verify(userRepository).releaseLoanSlots(Map.of("user-1", 1));
+        verify(availabilityIndex).refresh(Set.of("book-1"));
+        verify(circulationAnalytics).recordReturns(List.of(loan));
+    }
+}
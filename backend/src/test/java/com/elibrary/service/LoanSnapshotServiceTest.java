@@ -0,0 +1,36 @@
+package com.elibrary.service;
+
+import com.elibrary.exception.BusinessException;
+import com.elibrary.repository.BookRepository;
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanSnapshotServiceTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private LoanSnapshotService loanSnapshotService;
+
+    @Test
+    void checkDrift_WhenSnapshotsAreNotTheReadModel_ShouldRejectWithoutTouchingLoans() {
+        assertThrows(BusinessException.class, () -> loanSnapshotService.checkDrift(false));
+        assertThrows(BusinessException.class, () -> loanSnapshotService.checkDrift(true));
+        verifyNoInteractions(loanRepository);
+    }
+}
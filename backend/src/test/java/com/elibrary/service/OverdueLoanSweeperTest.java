@@ -0,0 +1,70 @@
+package com.elibrary.service;
+
+import com.elibrary.repository.LoanRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDate;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueLoanSweeperTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private CirculationAnalyticsService circulationAnalytics;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OverdueLoanSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new OverdueLoanSweeper(loanRepository, circulationAnalytics, meterRegistry);
+    }
+
+    @Test
+    void sweep_ShouldOnlyCoverDueDatesSinceThePreviousSweep() {
+        when(loanRepository.markOverdue(isNull(), eq(TODAY), anyString())).thenReturn(7L);
+        when(loanRepository.markOverdue(eq(TODAY), eq(TODAY.plusDays(1)), anyString())).thenReturn(2L);
+
+        assertEquals(7, sweeper.sweep(TODAY));
+        assertEquals(2, sweeper.sweep(TODAY.plusDays(1)));
+
+        assertEquals(2, meterRegistry.get("elibrary.loans.overdue.sweep.marked").gauge().value());
+        assertEquals(2, meterRegistry.get("elibrary.loans.overdue.sweep").timer().count());
+    }
+
+    @Test
+    void sweep_WithinTheSameDay_ShouldNotQueryAgain() {
+        when(loanRepository.markOverdue(isNull(), eq(TODAY), anyString())).thenReturn(3L);
+
+        sweeper.sweep(TODAY);
+        assertEquals(0, sweeper.sweep(TODAY));
+
+        verify(loanRepository, times(1)).markOverdue(any(), any(), any());
+    }
+
+    @Test
+    void sweep_ShouldRecordTheLoansItMarkedInTheCirculationRollups() {
+        ArgumentCaptor<String> sweepId = ArgumentCaptor.forClass(String.class);
+        when(loanRepository.markOverdue(isNull(), eq(TODAY), sweepId.capture())).thenReturn(4L);
+        when(loanRepository.markOverdue(eq(TODAY), eq(TODAY.plusDays(1)), anyString())).thenReturn(0L);
+
+        sweeper.sweep(TODAY);
+        sweeper.sweep(TODAY.plusDays(1));
+
+        verify(circulationAnalytics).recordOverdue(TODAY, sweepId.getValue());
+        verifyNoMoreInteractions(circulationAnalytics);
+    }
+}
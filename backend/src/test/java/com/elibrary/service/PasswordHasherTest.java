@@ -0,0 +1,56 @@
+package com.elibrary.service;
+
+import com.elibrary.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(4, 1, 4, Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void hash_ShouldProduceVerifiableBcryptHash() {
+        String hash = hasher.hash("secret");
+
+        assertTrue(PasswordHasher.isHashed(hash));
+        assertTrue(hasher.matches("secret", hash));
+        assertFalse(hasher.matches("wrong", hash));
+        assertFalse(hasher.needsRehash(hash));
+    }
+
+    @Test
+    void matches_ShouldAcceptLegacyPlaintextAndFlagItForRehash() {
+        assertTrue(hasher.matches("secret", "secret"));
+        assertFalse(hasher.matches("secret", "Secret"));
+        assertTrue(hasher.needsRehash("secret"));
+    }
+
+    @Test
+    void needsRehash_WhenCostRaised_ShouldFlagOlderHashes() {
+        PasswordHasher stronger = new PasswordHasher(5, 1, 4, Duration.ofSeconds(5));
+        try {
+            assertTrue(stronger.needsRehash(hasher.hash("secret")));
+        } finally {
+            stronger.shutdown();
+        }
+    }
+
+    @Test
+    void hash_WhenPoolIsBusy_ShouldFailFastWithServiceUnavailable() throws Exception {
+        PasswordHasher slow = new PasswordHasher(12, 1, 1, Duration.ofMillis(50));
+        try {
+            // BCrypt ignores interrupts, so the first hash keeps the only thread busy past both timeouts
+            assertThrows(ServiceUnavailableException.class, () -> slow.hash("first"));
+            assertThrows(ServiceUnavailableException.class, () -> slow.hash("second"));
+        } finally {
+            slow.shutdown();
+        }
+    }
+}
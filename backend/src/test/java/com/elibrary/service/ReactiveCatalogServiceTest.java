@@ -0,0 +1,85 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.BookDTO;
+import com.elibrary.entity.Category;
+import com.elibrary.exception.ResourceNotFoundException;
+import com.elibrary.repository.projection.CatalogBook;
+import com.elibrary.repository.reactive.ReactiveBookRepository;
+import com.elibrary.repository.reactive.ReactiveCategoryRepository;
+import com.mongodb.DBRef;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCatalogServiceTest {
+
+    private static final ObjectId FICTION_ID = new ObjectId();
+
+    @Mock
+    private ReactiveBookRepository bookRepository;
+
+    @Mock
+    private ReactiveCategoryRepository categoryRepository;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @InjectMocks
+    private ReactiveCatalogService catalogService;
+
+    @Test
+    void streamAllBooks_ShouldResolveCategoryNamesFromOneCategoryQuery() {
+        when(categoryRepository.findAll()).thenReturn(Flux.just(
+                Category.builder().id(FICTION_ID.toHexString()).name("Fiction").build()));
+        when(bookRepository.findAll()).thenReturn(Flux.just(book("b1", "Emma", true), book("b2", "Dune", false)));
+
+        List<BookDTO> books = catalogService.streamAllBooks().collectList().block();
+
+        assertEquals(2, books.size());
+        assertEquals("Fiction", books.get(0).getCategoryName());
+        assertEquals(FICTION_ID.toHexString(), books.get(0).getCategoryId());
+        assertNull(books.get(1).getCategoryName());
+        verify(categoryRepository, times(1)).findAll();
+        verify(categoryRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void searchBooks_WithIndex_ShouldKeepRankingOrder() {
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search("dune", 500)).thenReturn(List.of("b2", "b1"));
+        when(categoryRepository.findAll()).thenReturn(Flux.empty());
+        when(bookRepository.findAllById(anyIterable()))
+                .thenReturn(Flux.just(book("b1", "Dune Messiah", false), book("b2", "Dune", false)));
+
+        List<BookDTO> books = catalogService.searchBooks("dune").collectList().block();
+
+        assertEquals(List.of("b2", "b1"), books.stream().map(BookDTO::getId).toList());
+        verify(bookRepository, never()).searchBooks(anyString());
+    }
+
+    @Test
+    void getBookById_WhenMissing_ShouldSignalNotFound() {
+        when(bookRepository.findById("missing")).thenReturn(Mono.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> catalogService.getBookById("missing").block());
+    }
+
+    private static CatalogBook book(String id, String title, boolean fiction) {
+        return CatalogBook.builder()
+                .id(id)
+                .title(title)
+                .category(fiction ? new DBRef("categories", FICTION_ID) : null)
+                .build();
+    }
+}
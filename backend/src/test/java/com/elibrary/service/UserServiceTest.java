@@ -0,0 +1,144 @@
+package com.elibrary.service;
+
+import com.elibrary.dto.UserDTO;
+import com.elibrary.entity.Loan;
+import com.elibrary.entity.User;
+import com.elibrary.exception.BusinessException;
+import com.elibrary.repository.LoanRepository;
+import com.elibrary.repository.UserRepository;
+import com.elibrary.repository.projection.UserLoanCount;
+import com.elibrary.repository.projection.UserSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @InjectMocks
+    private UserService userService;
+
+    private User alice;
+    private User bob;
+    private UserSummary aliceSummary;
+    private UserSummary bobSummary;
+
+    @BeforeEach
+    void setUp() {
+        alice = User.builder()
+                .id("65a000000000000000000001")
+                .name("Alice")
+                .email("alice@example.com")
+                .active(true)
+                .build();
+
+        bob = User.builder()
+                .id("65a000000000000000000002")
+                .name("Bob")
+                .email("bob@example.com")
+                .active(true)
+                .build();
+
+        aliceSummary = UserSummary.builder()
+                .id(alice.getId())
+                .name("Alice")
+                .email("alice@example.com")
+                .active(true)
+                .build();
+
+        bobSummary = UserSummary.builder()
+                .id(bob.getId())
+                .name("Bob")
+                .email("bob@example.com")
+                .active(true)
+                .build();
+    }
+
+    @Test
+    void getAllUsers_ShouldCountActiveLoansWithSingleAggregation() {
+        when(userRepository.findSummariesBy()).thenReturn(Arrays.asList(aliceSummary, bobSummary));
+        when(loanRepository.countAllByStatusInGroupedByUser(Loan.LoanStatus.UNRETURNED))
+                .thenReturn(List.of(new UserLoanCount(alice.getId(), 3)));
+
+        List<UserDTO> result = userService.getAllUsers();
+
+        assertEquals(3, result.get(0).getActiveLoans());
+        assertEquals(0, result.get(1).getActiveLoans());
+        verify(loanRepository, never()).countByUser_IdAndStatusIn(anyString(), any());
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void searchUsers_ShouldBatchActiveLoanCountsForMatchedUsers() {
+        when(userRepository.findSummariesByNameContainingIgnoreCase("a"))
+                .thenReturn(Arrays.asList(aliceSummary, bobSummary));
+        when(loanRepository.countByUserIdsAndStatusIn(anyCollection(), eq(Loan.LoanStatus.UNRETURNED)))
+                .thenReturn(List.of(new UserLoanCount(bob.getId(), 1)));
+
+        List<UserDTO> result = userService.searchUsers("a");
+
+        assertEquals(0, result.get(0).getActiveLoans());
+        assertEquals(1, result.get(1).getActiveLoans());
+        verify(loanRepository, times(1)).countByUserIdsAndStatusIn(anyCollection(), any());
+        verify(loanRepository, never()).countByUser_IdAndStatusIn(anyString(), any());
+    }
+
+    @Test
+    void login_WithLegacyPlaintextPassword_ShouldReplaceItWithHash() {
+        alice.setPassword("secret");
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(alice));
+        when(passwordHasher.matches("secret", "secret")).thenReturn(true);
+        when(passwordHasher.needsRehash("secret")).thenReturn(true);
+        when(passwordHasher.hash("secret")).thenReturn("$2a$10$hashed");
+
+        UserDTO result = userService.login("alice@example.com", "secret");
+
+        assertEquals(alice.getId(), result.getId());
+        verify(userRepository).replacePassword(alice.getId(), "secret", "$2a$10$hashed");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void login_WithWrongPassword_ShouldThrowWithoutRehashing() {
+        alice.setPassword("$2a$10$stored");
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(alice));
+        when(passwordHasher.matches("wrong", "$2a$10$stored")).thenReturn(false);
+
+        assertThrows(BusinessException.class, () -> userService.login("alice@example.com", "wrong"));
+        verify(passwordHasher, never()).hash(anyString());
+        verify(userRepository, never()).replacePassword(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void resetPassword_ShouldStoreHash() {
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(alice));
+        when(passwordHasher.hash("new-secret")).thenReturn("$2a$10$hashed");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.resetPassword("alice@example.com", "new-secret");
+
+        assertEquals("$2a$10$hashed", alice.getPassword());
+    }
+}
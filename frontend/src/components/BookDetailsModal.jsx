@@ -1,9 +1,22 @@
-import React from 'react';
+import React, { useEffect, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
+import { bookApi } from '../services/api';
 import '../styles/BookDetailsModal.css';
 
 const BookDetailsModal = ({ book, onClose }) => {
     const navigate = useNavigate();
+    const [alsoBorrowed, setAlsoBorrowed] = useState([]);
+
+    useEffect(() => {
+        setAlsoBorrowed([]);
+        if (!book?.id) return;
+        let cancelled = false;
+        bookApi.getRecommendations(book.id)
+            .then((response) => { if (!cancelled) setAlsoBorrowed(response.data); })
+            .catch(() => { });
+        return () => { cancelled = true; };
+    }, [book?.id]);
+
     if (!book) return null;
 
     return (
@@ -56,6 +69,20 @@ const BookDetailsModal = ({ book, onClose }) => {
                             <p>{book.description}</p>
                         </div>
 
+                        {alsoBorrowed.length > 0 && (
+                            <div className="modal-also-borrowed">
+                                <h3>Readers Also Borrowed</h3>
+                                <ul>
+                                    {alsoBorrowed.map((other) => (
+                                        <li key={other.id}>
+                                            <span className="also-borrowed-title">{other.title}</span>
+                                            <span className="also-borrowed-author">{other.author}</span>
+                                        </li>
+                                    ))}
+                                </ul>
+                            </div>
+                        )}
+
                         <div className="modal-actions">
                             <button
                                 className="read-sample-btn"
@@ -169,6 +169,20 @@ function BooksPage() {
         e.preventDefault();
     };
 
+    // Listings leave out the description, so it is loaded when a book is opened
+    const openBook = async (book) => {
+        setSelectedBook(book);
+        if (book.description !== undefined) return;
+        try {
+            const response = await bookApi.getById(book.id);
+            setSelectedBook(current => current && current.id === book.id
+                ? { ...current, description: response.data.description }
+                : current);
+        } catch (error) {
+            console.error('Failed to fetch book details:', error);
+        }
+    };
+
     if (loading) return <Loading />;
 
     return (
@@ -247,7 +261,7 @@ function BooksPage() {
                         key={book.id}
                         className="book-card-container"
                         style={{ '--delay': `${index * 0.1}s` }}
-                        onClick={() => setSelectedBook(book)}
+                        onClick={() => openBook(book)}
                     >
                         <div className="book-cover-wrapper">
                             <img
@@ -13,8 +13,15 @@ const api = axios.create({
 export const bookApi = {
     getAll: () => api.get('/books'),
     getById: (id) => api.get(`/books/${id}`),
+    // Books most often borrowed by readers of this one
+    getRecommendations: (id, limit = 5) => api.get(`/books/${id}/recommendations`, { params: { limit } }),
     search: (keyword) => api.get(`/books/search?keyword=${keyword}`),
-    getAvailable: () => api.get('/books/available'),
+    // For search-as-you-type; answered from memory, unlike search
+    autocomplete: (prefix, limit = 8) => api.get('/books/autocomplete', { params: { prefix, limit } }),
+    // params: categoryId, page, size; answers { items, total, page, size, hasNext }
+    getAvailable: (params) => api.get('/books/available', { params }),
+    // params: keyword, categoryId, author, decade, available, page, size, sort
+    facets: (params) => api.get('/books/facets', { params }),
     getByCategory: (categoryId) => api.get(`/books/category/${categoryId}`),
     create: (book) => api.post('/books', book),
     update: (id, book) => api.put(`/books/${id}`, book),
@@ -47,6 +54,15 @@ export const loanApi = {
     extend: (id, days) => api.post(`/loans/${id}/extend?days=${days}`),
 };
 
+// Analytics API, served from daily circulation rollups
+export const analyticsApi = {
+    // params: from, to (YYYY-MM-DD, inclusive), categoryId
+    getCirculation: (params) => api.get('/analytics/circulation', { params }),
+    // params: from, to, categoryId, limit
+    getTopTitles: (params) => api.get('/analytics/circulation/top-titles', { params }),
+    backfill: () => api.post('/analytics/circulation/backfill'),
+};
+
 // Categories API
 export const categoryApi = {
     getAll: () => api.get('/categories'),
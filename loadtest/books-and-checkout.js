@@ -0,0 +1,83 @@
+// k6 load test for the catalog listing and the checkout/return path.
+// Usage: k6 run -e BASE_URL=http://localhost:8080 loadtest/books-and-checkout.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = Number(__ENV.RATE || 400);
+const DURATION = __ENV.DURATION || '1m';
+const FIXTURE_SIZE = 200;
+const JSON_HEADERS = { headers: { 'Content-Type': 'application/json' } };
+
+export const options = {
+  scenarios: {
+    books: {
+      executor: 'constant-arrival-rate',
+      exec: 'listBooks',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+    },
+    checkout: {
+      executor: 'constant-arrival-rate',
+      exec: 'checkoutAndReturn',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+    },
+  },
+  summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+  // Always-passing thresholds make k6 report each scenario's metrics separately in the summary
+  thresholds: {
+    'http_req_duration{scenario:books}': ['p(95)>=0'],
+    'http_req_duration{scenario:checkout}': ['p(95)>=0'],
+    'http_reqs{scenario:books}': ['count>=0'],
+    'http_reqs{scenario:checkout}': ['count>=0'],
+  },
+};
+
+// Books with plenty of copies and users who return immediately, so neither inventory
+// nor the five-loan limit runs out during the test
+export function setup() {
+  const suffix = Date.now();
+  const bookIds = [];
+  const userIds = [];
+  for (let i = 0; i < FIXTURE_SIZE; i++) {
+    const book = http.post(`${BASE_URL}/api/books`, JSON.stringify({
+      title: `Load Test Book ${i}`,
+      author: 'k6',
+      isbn: `LT-${suffix}-${i}`,
+      totalCopies: 100000,
+      availableCopies: 100000,
+    }), JSON_HEADERS);
+    bookIds.push(book.json('id'));
+    const user = http.post(`${BASE_URL}/api/users`, JSON.stringify({
+      name: `Load Test User ${i}`,
+      email: `lt-${suffix}-${i}@example.com`,
+      password: 'load-test',
+    }), JSON_HEADERS);
+    userIds.push(user.json('id'));
+  }
+  return { bookIds, userIds };
+}
+
+export function listBooks() {
+  const res = http.get(`${BASE_URL}/api/books`, { tags: { name: 'GET /api/books' } });
+  check(res, { 'books 200': (r) => r.status === 200 });
+}
+
+export function checkoutAndReturn(data) {
+  const bookId = data.bookIds[Math.floor(Math.random() * data.bookIds.length)];
+  const userId = data.userIds[Math.floor(Math.random() * data.userIds.length)];
+  const res = http.post(`${BASE_URL}/api/loans/checkout?bookId=${bookId}&userId=${userId}`, null,
+    { tags: { name: 'POST /api/loans/checkout' } });
+  // A user already at the loan limit from concurrent iterations is an expected 400
+  check(res, { 'checkout 201 or 400': (r) => r.status === 201 || r.status === 400 });
+  if (res.status === 201) {
+    http.post(`${BASE_URL}/api/loans/${res.json('id')}/return`, null, { tags: { name: 'POST /api/loans/{id}/return' } });
+  }
+}
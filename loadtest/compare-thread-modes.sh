@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Runs books-and-checkout.js against the backend with platform threads and then with the
+# virtual-threads profile, and prints throughput and latency side by side.
+# Needs a running MongoDB (SPRING_DATA_MONGODB_URI), Java 21, k6 and jq; build the jar first
+# with ./mvnw -f backend/pom.xml package -DskipTests.
+# Usage: loadtest/compare-thread-modes.sh [rate per scenario] [duration]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RATE="${1:-400}"
+DURATION="${2:-1m}"
+PORT="${PORT:-8099}"
+RESULTS="loadtest/results"
+JAR="$(ls backend/target/e-library-system-*.jar | grep -v plain | head -n 1)"
+mkdir -p "$RESULTS"
+
+run_mode() {
+  local mode="$1" profile="$2"
+  java -jar "$JAR" --server.port="$PORT" ${profile:+--spring.profiles.active="$profile"} \
+    > "$RESULTS/$mode.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" EXIT
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+    kill -0 "$pid" 2>/dev/null || { echo "backend exited, see $RESULTS/$mode.log" >&2; exit 1; }
+    sleep 1
+  done
+  k6 run --quiet -e BASE_URL="http://localhost:$PORT" -e RATE="$RATE" -e DURATION="$DURATION" \
+    --summary-export "$RESULTS/$mode.json" loadtest/books-and-checkout.js
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode platform ""
+run_mode virtual virtual-threads
+
+printf '\n%-10s %-9s %10s %10s %10s %10s\n' mode scenario "req/s" "p50 ms" "p95 ms" "p99 ms"
+for mode in platform virtual; do
+  for scenario in books checkout; do
+    jq -r --arg m "$mode" --arg s "$scenario" '
+      .metrics["http_reqs{scenario:\($s)}"] as $reqs
+      | .metrics["http_req_duration{scenario:\($s)}"] as $lat
+      | [$m, $s, ($reqs.rate | floor), ($lat.med * 10 | floor / 10),
+         ($lat["p(95)"] * 10 | floor / 10), ($lat["p(99)"] * 10 | floor / 10)]
+      | @tsv' "$RESULTS/$mode.json" \
+      | awk -F'\t' '{ printf "%-10s %-9s %10s %10s %10s %10s\n", $1, $2, $3, $4, $5, $6 }'
+  done
+done